@@ -0,0 +1,140 @@
+package org.github.cradloff.scanutils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Aho–Corasick-Automat für die gleichzeitige Suche nach mehreren Zeichenketten. Die Zeichenketten werden über
+ * ihren Index in der übergebenen Liste identifiziert. Die Kinder eines Knotens liegen sortiert hintereinander
+ * in einem Array, vergleichbar mit dem {@link DictionaryTrie}.
+ */
+class AhoCorasick {
+	private static final int[] NONE = new int[0];
+
+	/** Kinder von Knoten i liegen in [first[i], first[i + 1]) */
+	private final int[] first;
+	private final char[] label;
+	private final int[] target;
+	/** Knoten für das längste echte Suffix, das auch ein Präfix einer Zeichenkette ist */
+	private final int[] fail;
+	/** Indizes der Zeichenketten, die am Knoten enden, inklusive der Suffixe */
+	private final int[][] output;
+
+	AhoCorasick(List<String> patterns) {
+		// zuerst einen einfachen Trie aufbauen
+		List<TreeMap<Character, Integer>> children = new ArrayList<>();
+		List<int[]> outputs = new ArrayList<>();
+		children.add(new TreeMap<>());
+		outputs.add(NONE);
+		for (int p = 0; p < patterns.size(); p++) {
+			String pattern = patterns.get(p);
+			int node = 0;
+			for (int i = 0; i < pattern.length(); i++) {
+				Integer child = children.get(node).get(pattern.charAt(i));
+				if (child == null) {
+					child = children.size();
+					children.get(node).put(pattern.charAt(i), child);
+					children.add(new TreeMap<>());
+					outputs.add(NONE);
+				}
+				node = child;
+			}
+			outputs.set(node, append(outputs.get(node), p));
+		}
+
+		// Kinder in Arrays übernehmen
+		int nodes = children.size();
+		first = new int[nodes + 1];
+		label = new char[nodes - 1];
+		target = new int[nodes - 1];
+		int edge = 0;
+		for (int node = 0; node < nodes; node++) {
+			first[node] = edge;
+			for (Map.Entry<Character, Integer> entry : children.get(node).entrySet()) {
+				label[edge] = entry.getKey();
+				target[edge] = entry.getValue();
+				edge++;
+			}
+		}
+		first[nodes] = edge;
+
+		// Fehler-Links in Breitensuche berechnen, die Ausgaben der Suffixe werden übernommen
+		fail = new int[nodes];
+		output = new int[nodes][];
+		output[0] = outputs.get(0);
+		Deque<Integer> queue = new ArrayDeque<>();
+		for (int e = first[0]; e < first[1]; e++) {
+			output[target[e]] = outputs.get(target[e]);
+			queue.add(target[e]);
+		}
+		while (! queue.isEmpty()) {
+			int node = queue.poll();
+			for (int e = first[node]; e < first[node + 1]; e++) {
+				int child = target[e];
+				int f = fail[node];
+				int next;
+				while ((next = child(f, label[e])) < 0 && f != 0) {
+					f = fail[f];
+				}
+				fail[child] = next >= 0 ? next : 0;
+				output[child] = merge(outputs.get(child), output[fail[child]]);
+				queue.add(child);
+			}
+		}
+	}
+
+	private int child(int node, char ch) {
+		int low = first[node];
+		int high = first[node + 1] - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			char c = label[mid];
+			if (c < ch) {
+				low = mid + 1;
+			} else if (c > ch) {
+				high = mid - 1;
+			} else {
+				return target[mid];
+			}
+		}
+
+		return -1;
+	}
+
+	/** Setzt für alle Zeichenketten, die im Text vorkommen, das entsprechende Bit */
+	void find(CharSequence text, BitSet result) {
+		int node = 0;
+		for (int i = 0; i < text.length(); i++) {
+			char ch = text.charAt(i);
+			int next;
+			while ((next = child(node, ch)) < 0 && node != 0) {
+				node = fail[node];
+			}
+			node = next >= 0 ? next : 0;
+			for (int p : output[node]) {
+				result.set(p);
+			}
+		}
+	}
+
+	private static int[] append(int[] values, int value) {
+		int[] result = Arrays.copyOf(values, values.length + 1);
+		result[values.length] = value;
+		return result;
+	}
+
+	private static int[] merge(int[] values1, int[] values2) {
+		if (values2.length == 0) {
+			return values1;
+		}
+		int[] result = Arrays.copyOf(values1, values1.length + values2.length);
+		System.arraycopy(values2, 0, result, values1.length, values2.length);
+		return result;
+	}
+}
@@ -0,0 +1,14 @@
+package org.github.cradloff.scanutils;
+
+/** Suche mit einem gewichteten Levenshtein-Automaten, siehe {@link LineProcessor#automaton(String, int)} */
+public class AutomatonCandidateGenerator implements CandidateGenerator {
+	@Override
+	public String name() {
+		return LineProcessor.ENGINE_AUTOMATON;
+	}
+
+	@Override
+	public String correct(LineProcessor processor, String input, int level) {
+		return processor.automaton(input, level);
+	}
+}
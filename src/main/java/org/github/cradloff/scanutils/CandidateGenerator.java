@@ -0,0 +1,25 @@
+package org.github.cradloff.scanutils;
+
+import java.util.ServiceLoader;
+
+/**
+ * Verfahren für die Suche nach dem besten Kandidaten für ein unbekanntes Wort. Die Verfahren werden über den
+ * {@link ServiceLoader} aus <code>META-INF/services/org.github.cradloff.scanutils.CandidateGenerator</code>
+ * geladen und mit der Option <code>-engine=&lt;name&gt;</code> ausgewählt, siehe {@link CandidateGenerators}.
+ * <p>
+ * Eine Instanz wird von allen Threads gemeinsam verwendet, Implementierungen müssen daher threadsicher sein.
+ */
+public interface CandidateGenerator {
+	/** Name, unter dem das Verfahren ausgewählt wird */
+	String name();
+
+	/**
+	 * Liefert den besten Kandidaten für das Wort oder das Wort selbst, wenn es keinen passenden Kandidaten gibt.
+	 * War das Wort groß geschrieben, muss auch der Kandidat groß geschrieben sein.
+	 *
+	 * @param processor liefert das Wörterbuch ({@link LineProcessor#dictionary()}) und die vorhandenen Suchverfahren
+	 * @param input das unbekannte Wort
+	 * @param level Aufwand, der getrieben werden soll, höchstens die Wortlänge - 1
+	 */
+	String correct(LineProcessor processor, String input, int level);
+}
@@ -0,0 +1,43 @@
+package org.github.cradloff.scanutils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/** Die über den {@link ServiceLoader} gefundenen {@link CandidateGenerator}en, in der Reihenfolge ihrer Registrierung */
+final class CandidateGenerators {
+	private static final Map<String, CandidateGenerator> GENERATORS;
+	static {
+		Map<String, CandidateGenerator> generators = new LinkedHashMap<>();
+		for (CandidateGenerator generator : ServiceLoader.load(CandidateGenerator.class)) {
+			if (generators.put(generator.name(), generator) != null) {
+				throw new IllegalStateException("Suche " + generator.name() + " ist mehrfach registriert");
+			}
+		}
+		if (! generators.containsKey(LineProcessor.ENGINE_DEFAULT)) {
+			throw new IllegalStateException("Standard-Suche " + LineProcessor.ENGINE_DEFAULT + " ist nicht registriert");
+		}
+		GENERATORS = Collections.unmodifiableMap(generators);
+	}
+
+	private CandidateGenerators() {
+	}
+
+	/** Namen aller Verfahren */
+	static List<String> names() {
+		return new ArrayList<>(GENERATORS.keySet());
+	}
+
+	/** Liefert das Verfahren mit dem Namen, wirft eine IllegalArgumentException, wenn es keins gibt */
+	static CandidateGenerator get(String name) {
+		CandidateGenerator generator = GENERATORS.get(name);
+		if (generator == null) {
+			throw new IllegalArgumentException("Unbekannte Suche: " + name + ", möglich sind " + names());
+		}
+
+		return generator;
+	}
+}
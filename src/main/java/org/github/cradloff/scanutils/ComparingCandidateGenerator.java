@@ -0,0 +1,71 @@
+package org.github.cradloff.scanutils;
+
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Führt zwei Verfahren für dieselben Wörter aus und merkt sich die Wörter, bei denen sie zu unterschiedlichen
+ * Ergebnissen kommen, sowie die Zeit, die jedes Verfahren benötigt. Übernommen wird das Ergebnis des ersten
+ * Verfahrens. So lässt sich ein neues Verfahren an echten Texten mit dem bisherigen vergleichen.
+ */
+class ComparingCandidateGenerator implements CandidateGenerator {
+	private final CandidateGenerator first;
+	private final CandidateGenerator second;
+	private final LongAdder calls = new LongAdder();
+	private final LongAdder firstNanos = new LongAdder();
+	private final LongAdder secondNanos = new LongAdder();
+	/** Wort -> Ergebnisse beider Verfahren, sortiert nach dem Wort */
+	private final Map<String, String[]> differences = new ConcurrentSkipListMap<>();
+
+	ComparingCandidateGenerator(CandidateGenerator first, CandidateGenerator second) {
+		this.first = first;
+		this.second = second;
+	}
+
+	@Override
+	public String name() {
+		return first.name() + "," + second.name();
+	}
+
+	@Override
+	public String correct(LineProcessor processor, String input, int level) {
+		long start = System.nanoTime();
+		String result = first.correct(processor, input, level);
+		long middle = System.nanoTime();
+		String other = second.correct(processor, input, level);
+		long end = System.nanoTime();
+
+		calls.increment();
+		firstNanos.add(middle - start);
+		secondNanos.add(end - middle);
+		if (! result.equals(other)) {
+			differences.put(input, new String[] { result, other });
+		}
+
+		return result;
+	}
+
+	/** Anzahl der Wörter mit unterschiedlichen Ergebnissen */
+	int differences() {
+		return differences.size();
+	}
+
+	/** Schreibt die Wörter mit unterschiedlichen Ergebnissen, je Zeile das Wort und die Ergebnisse durch Tab getrennt */
+	void write(PrintWriter log) {
+		log.printf("# Wort\t%s\t%s%n", first.name(), second.name());
+		for (Entry<String, String[]> entry : differences.entrySet()) {
+			log.printf("%s\t%s\t%s%n", entry.getKey(), entry.getValue()[0], entry.getValue()[1]);
+		}
+	}
+
+	/** Zusammenfassung für die Konsole */
+	String summary() {
+		return String.format("Vergleich: %,d Wörter, %,d Abweichungen, %s: %,dms, %s: %,dms%n",
+				calls.sum(), differences.size(),
+				first.name(), firstNanos.sum() / 1_000_000,
+				second.name(), secondNanos.sum() / 1_000_000);
+	}
+}
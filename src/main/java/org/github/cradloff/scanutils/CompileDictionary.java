@@ -0,0 +1,27 @@
+package org.github.cradloff.scanutils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.commons.collections4.Bag;
+
+/**
+ * Erzeugt aus einem Wörterbuch die kompilierte Fassung (z.B. german.dic.bin), die deutlich schneller
+ * eingelesen werden kann. Die kompilierte Fassung wird automatisch verwendet, solange sie nicht älter
+ * als das Wörterbuch ist.
+ */
+public class CompileDictionary {
+	public static void main(String... args) throws IOException {
+		String[] filenames = args.length == 0 ? new String[] { "german.dic" } : args;
+		List<File> inputs = FileAccess.checkExists(filenames);
+		for (File input : inputs) {
+			long start = System.currentTimeMillis();
+			Bag<String> dict = FileAccess.readTextDict(input);
+			File output = CompiledDictionary.compiledFile(input);
+			CompiledDictionary.write(output, dict);
+			System.out.printf("Wörterbuch %s kompiliert (%,d Wörter, %,d ms)%n", output.getPath(), dict.uniqueSet().size(),
+					(System.currentTimeMillis() - start));
+		}
+	}
+}
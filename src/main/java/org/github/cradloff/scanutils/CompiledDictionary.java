@@ -0,0 +1,177 @@
+package org.github.cradloff.scanutils;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import org.apache.commons.collections4.Bag;
+import org.apache.commons.collections4.bag.HashBag;
+
+/**
+ * Binäres Format für Wörterbücher. Die Wörter werden sortiert und mit Front-Coding (Länge des gemeinsamen
+ * Präfix mit dem Vorgänger und der Rest des Worts) abgelegt, die Häufigkeiten als variable lange Zahlen.
+ * Aufbau der Datei:
+ * <pre>
+ * Header:  Magic "SUDC", Version, Anzahl Einträge, Länge der Daten, CRC32 (je 4 Byte)
+ * Eintrag: Präfix-Länge, Suffix-Länge, Suffix (UTF-8), Häufigkeit
+ * </pre>
+ * Die Prüfsumme umfasst die Anzahl der Einträge, die Länge und die Daten. Die Datei wird über einen
+ * {@link MappedByteBuffer} gelesen.
+ */
+public class CompiledDictionary {
+	/** Endung der kompilierten Datei, z.B. german.dic.bin */
+	static final String SUFFIX = ".bin";
+	private static final int MAGIC = 0x53554443; // "SUDC"
+	private static final int VERSION = 2;
+	private static final int HEADER_SIZE = 20;
+
+	private CompiledDictionary() {
+	}
+
+	/** Liefert die kompilierte Datei zum Wörterbuch */
+	static File compiledFile(File dic) {
+		return new File(dic.getPath() + SUFFIX);
+	}
+
+	/** Prüft, ob eine kompilierte Fassung vorhanden ist, die nicht älter als das Wörterbuch ist */
+	static boolean isUpToDate(File dic) {
+		File bin = compiledFile(dic);
+		return bin.isFile() && bin.lastModified() >= dic.lastModified();
+	}
+
+	/** Schreibt das Wörterbuch im binären Format */
+	static void write(File file, Bag<String> dict) throws IOException {
+		String[] words = dict.uniqueSet().toArray(new String[0]);
+		Arrays.sort(words);
+
+		ByteArrayOutputStream payload = new ByteArrayOutputStream(words.length * 8);
+		byte[] last = new byte[0];
+		for (String word : words) {
+			byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+			int prefix = commonPrefix(last, bytes);
+			writeVarInt(payload, prefix);
+			writeVarInt(payload, bytes.length - prefix);
+			payload.write(bytes, prefix, bytes.length - prefix);
+			writeVarInt(payload, dict.getCount(word));
+			last = bytes;
+		}
+
+		byte[] data = payload.toByteArray();
+		CRC32 crc = checksum(words.length, data.length);
+		crc.update(data);
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(words.length);
+			out.writeInt(data.length);
+			out.writeInt((int) crc.getValue());
+			out.write(data);
+		}
+	}
+
+	/** Liest ein Wörterbuch im binären Format ein */
+	static Bag<String> read(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			if (channel.size() < HEADER_SIZE) {
+				throw new IOException("Datei " + file + " ist kein kompiliertes Wörterbuch");
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+				throw new IOException("Datei " + file + " ist kein kompiliertes Wörterbuch");
+			}
+			int entries = buffer.getInt();
+			int length = buffer.getInt();
+			int checksum = buffer.getInt();
+			if (length != channel.size() - HEADER_SIZE) {
+				throw new IOException("Datei " + file + " ist unvollständig");
+			}
+
+			ByteBuffer data = buffer.slice();
+			CRC32 crc = checksum(entries, length);
+			crc.update(data.duplicate());
+			if ((int) crc.getValue() != checksum) {
+				throw new IOException("Prüfsumme von " + file + " ist ungültig");
+			}
+
+			try {
+				return decode(data, entries);
+			} catch (RuntimeException e) {
+				// passt der Inhalt trotz Prüfsumme nicht zusammen, wird wie bei anderen Fehlern die Text-Datei verwendet
+				throw new IOException("Datei " + file + " ist beschädigt", e);
+			}
+		}
+	}
+
+	private static Bag<String> decode(ByteBuffer data, int entries) throws IOException {
+		Bag<String> dict = new HashBag<>();
+		byte[] word = new byte[64];
+		int last = 0;
+		for (int i = 0; i < entries; i++) {
+			int prefix = readVarInt(data);
+			int suffix = readVarInt(data);
+			if (prefix < 0 || prefix > last || suffix < 0 || suffix > data.remaining()) {
+				throw new IOException("ungültiger Eintrag " + i);
+			}
+			if (prefix + suffix > word.length) {
+				word = Arrays.copyOf(word, Math.max(word.length * 2, prefix + suffix));
+			}
+			data.get(word, prefix, suffix);
+			dict.add(new String(word, 0, prefix + suffix, StandardCharsets.UTF_8), readVarInt(data));
+			last = prefix + suffix;
+		}
+		if (data.hasRemaining()) {
+			throw new IOException("Anzahl der Einträge passt nicht zu den Daten");
+		}
+
+		return dict;
+	}
+
+	/** Prüfsumme über die Angaben im Header, die Daten werden anschließend ergänzt */
+	private static CRC32 checksum(int entries, int length) {
+		CRC32 crc = new CRC32();
+		crc.update(ByteBuffer.allocate(8).putInt(entries).putInt(length).flip());
+
+		return crc;
+	}
+
+	private static int commonPrefix(byte[] b1, byte[] b2) {
+		int max = Math.min(b1.length, b2.length);
+		int i = 0;
+		while (i < max && b1[i] == b2[i]) {
+			i++;
+		}
+		return i;
+	}
+
+	private static void writeVarInt(OutputStream out, int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.write((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.write(value);
+	}
+
+	private static int readVarInt(ByteBuffer buffer) {
+		int value = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = buffer.get();
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+
+		return value;
+	}
+}
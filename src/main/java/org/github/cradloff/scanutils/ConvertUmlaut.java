@@ -7,7 +7,6 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.Reader;
-import java.util.List;
 
 public class ConvertUmlaut {
 	public static void main(String[] args) throws IOException {
@@ -68,36 +67,40 @@ public class ConvertUmlaut {
 	private static boolean convertUmlaut(Reader in, PrintWriter out) throws IOException {
 		boolean modified[] = { false };
 		try (BufferedReader reader = new BufferedReader(in);) {
+			Tokenizer tokenizer = new Tokenizer();
 			reader.lines().forEach(line -> {
 				// Zeile in Token zerlegen
-				List<String> s = TextUtils.split(line);
-				modified[0] = convertUmlaut(s) | modified[0];
-
-				for (String token : s) {
-					out.write(token);
-				}
+				tokenizer.tokenize(line);
+				modified[0] = convertUmlaut(line, tokenizer, out) | modified[0];
 				out.println();
 			});
 		}
 		return modified[0];
 	}
 
-	private static boolean convertUmlaut(List<String> line) {
+	/** Schreibt die Zeile, dabei werden Ae, Oe und Ue am Wortanfang durch Umlaute ersetzt */
+	private static boolean convertUmlaut(String line, Tokenizer tokenizer, PrintWriter out) {
 		boolean modified = false;
-		for (int i = 0; i < line.size(); i++) {
-			String token = line.get(i);
-			if (token.startsWith("Ae")) {
-				modified = true;
-				token = token.replaceFirst("Ae", "Ä");
-			} else if (token.startsWith("Oe")) {
-				modified = true;
-				token = token.replaceFirst("Oe", "Ö");
-			} else if (token.startsWith("Ue")) {
-				modified = true;
-				token = token.replaceFirst("Ue", "Ü");
+		// unveränderte Teile der Zeile werden am Stück ausgegeben
+		int written = 0;
+		for (int i = 0; i < tokenizer.size(); i++) {
+			String umlaut;
+			if (tokenizer.startsWith(i, "Ae")) {
+				umlaut = "Ä";
+			} else if (tokenizer.startsWith(i, "Oe")) {
+				umlaut = "Ö";
+			} else if (tokenizer.startsWith(i, "Ue")) {
+				umlaut = "Ü";
+			} else {
+				continue;
 			}
-			line.set(i, token);
+			modified = true;
+			out.write(line, written, tokenizer.start(i) - written);
+			out.write(umlaut);
+			written = tokenizer.start(i) + 2;
 		}
+		out.write(line, written, line.length() - written);
+
 		return modified;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,158 @@
+package org.github.cradloff.scanutils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Cache für die Korrektur einzelner Wörter. OCR-Fehler wiederholen sich, daher wird das Ergebnis der Suche
+ * für jedes Wort und jede Suchtiefe gemerkt. Wurde keine Korrektur gefunden, wird das Wort selbst abgelegt.
+ * Der Cache ist in Segmente aufgeteilt, die jeweils die zuletzt verwendeten Einträge behalten (LRU). Er
+ * kann von mehreren Threads gleichzeitig verwendet werden.
+ */
+public class CorrectionCache {
+	/** Default für die maximale Anzahl Einträge */
+	static final int DEFAULT_SIZE = 100_000;
+	/** Anzahl Segmente als Zweierpotenz, die Segmente werden über die oberen Bits des Hashcodes gewählt */
+	private static final int SEGMENT_BITS = 4;
+	private static final int SEGMENTS = 1 << SEGMENT_BITS;
+
+	private final Segment[] segments = new Segment[SEGMENTS];
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	/** Datei, in der neue Einträge gespeichert werden, ggf. null */
+	private volatile CorrectionCacheFile file;
+
+	public CorrectionCache() {
+		this(DEFAULT_SIZE);
+	}
+
+	public CorrectionCache(int maxSize) {
+		int segmentSize = Math.max(1, maxSize / SEGMENTS);
+		for (int i = 0; i < SEGMENTS; i++) {
+			segments[i] = new Segment(segmentSize);
+		}
+	}
+
+	/**
+	 * Liefert die Korrektur des Worts. Ist sie noch nicht bekannt, wird sie ermittelt und gespeichert. Die
+	 * Berechnung erfolgt außerhalb der Sperre, im Zweifel wird sie also von zwei Threads gleichzeitig durchgeführt.
+	 */
+	public String get(String token, int level, Function<String, String> correction) {
+		Key key = new Key(token, level);
+		Segment segment = segment(key);
+		String result;
+		synchronized (segment) {
+			result = segment.get(key);
+		}
+		if (result != null) {
+			hits.increment();
+			return result;
+		}
+
+		// Einträge aus früheren Läufen, die nicht mehr im Speicher gehalten werden
+		CorrectionCacheFile file = this.file;
+		result = file == null ? null : file.get(token, level);
+		if (result != null) {
+			hits.increment();
+		} else {
+			misses.increment();
+			result = correction.apply(token);
+			if (file != null) {
+				file.append(token, level, result);
+			}
+		}
+		synchronized (segment) {
+			segment.put(key, result);
+		}
+
+		return result;
+	}
+
+	/** Legt eine bereits bekannte Korrektur ab */
+	public void put(String token, int level, String replacement) {
+		Key key = new Key(token, level);
+		Segment segment = segment(key);
+		synchronized (segment) {
+			segment.put(key, replacement);
+		}
+	}
+
+	/** Neue Einträge werden zusätzlich in der Datei gespeichert */
+	void persist(CorrectionCacheFile file) {
+		this.file = file;
+	}
+
+	private Segment segment(Key key) {
+		// die oberen Bits sind bei ähnlichen Wörtern gleich, daher wird der Hashcode vorher gemischt
+		return segments[(key.hashCode() * 0x9E3779B9) >>> (32 - SEGMENT_BITS)];
+	}
+
+	public long hits() {
+		return hits.sum();
+	}
+
+	public long misses() {
+		return misses.sum();
+	}
+
+	/** Anteil der Treffer in Prozent */
+	public double hitRate() {
+		long hits = hits();
+		long total = hits + misses();
+		return total == 0 ? 0 : hits * 100.0 / total;
+	}
+
+	/** Anzahl der gespeicherten Einträge */
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+
+		return size;
+	}
+
+	private static class Key {
+		private final String token;
+		private final int level;
+
+		Key(String token, int level) {
+			this.token = token;
+			this.level = level;
+		}
+
+		@Override
+		public int hashCode() {
+			return token.hashCode() * 31 + level;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (! (obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return level == other.level && token.equals(other.token);
+		}
+	}
+
+	/** Segment mit den zuletzt verwendeten Einträgen */
+	private static class Segment extends LinkedHashMap<Key, String> {
+		private static final long serialVersionUID = 1L;
+		private final int maxSize;
+
+		Segment(int maxSize) {
+			super(16, 0.75f, true);
+			this.maxSize = maxSize;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, String> eldest) {
+			return size() > maxSize;
+		}
+	}
+}
@@ -0,0 +1,257 @@
+package org.github.cradloff.scanutils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.commons.collections4.Bag;
+
+/**
+ * Speichert die Korrekturen des {@link CorrectionCache} über mehrere Läufe hinweg. Die Datei wird nur
+ * fortgeschrieben, jede Zeile enthält den Fingerabdruck, das Wort und die Korrektur durch Tab getrennt:
+ * <pre>
+ * 1f3a...	Waffer	Wasser
+ * </pre>
+ * Nur mit einem Zeilenumbruch abgeschlossene Zeilen werden gelesen. Wurde ein Lauf abgebrochen, bevor die letzte
+ * Zeile vollständig geschrieben war, wird sie beim Öffnen entfernt.
+ * <p>
+ * Der Fingerabdruck wird aus dem Wörterbuch, den Rechtschreib-Korrekturen, den Silben und der Suchtiefe
+ * gebildet. Ändert sich eines davon, werden die alten Einträge nicht mehr verwendet. Bestehen mehr als
+ * die Hälfte der Zeilen aus veralteten oder doppelten Einträgen, wird die Datei beim Öffnen neu geschrieben.
+ * <p>
+ * Im Speicher werden bis zu {@link #DEFAULT_SIZE} Einträge gehalten, unabhängig von der Größe des
+ * {@link CorrectionCache}, damit aus dem Cache verdrängte Wörter nicht erneut gesucht werden. Darüber hinaus werden
+ * die am längsten nicht verwendeten Einträge verdrängt. Werden sie später erneut angehängt und hat die Datei
+ * dadurch mehr als doppelt so viele Zeilen wie Einträge im Speicher, wird sie schon während des Laufs mit den
+ * Einträgen im Speicher neu geschrieben. So bleiben Speicherbedarf und Dateigröße auch bei langen Läufen begrenzt.
+ */
+public class CorrectionCacheFile implements Closeable {
+	/** Name der Datei, sie liegt im Verzeichnis des Wörterbuchs */
+	static final String FILENAME = "correction.cache";
+	/** wird erhöht, wenn sich die Suche so ändert, dass die gespeicherten Ergebnisse ungültig werden */
+	private static final int VERSION = 1;
+	/** Default für die maximale Anzahl Einträge im Speicher */
+	static final int DEFAULT_SIZE = 5 * CorrectionCache.DEFAULT_SIZE;
+
+	private final File file;
+	private final String fingerprint;
+	/** Suchtiefe, für die die Einträge gelten */
+	private final int level;
+	private Writer writer;
+	/** die zuletzt verwendeten Einträge mit dem passenden Fingerabdruck, inklusive der neu angehängten */
+	private final Entries entries;
+	/** Anzahl der Zeilen in der Datei */
+	private int lines;
+	/** Anzahl der geladenen Einträge */
+	private final int loaded;
+
+	private CorrectionCacheFile(File file, String fingerprint, int level, Entries entries, int lines) throws IOException {
+		this.file = file;
+		this.fingerprint = fingerprint;
+		this.level = level;
+		this.entries = entries;
+		this.lines = lines;
+		this.loaded = entries.size();
+		this.writer = openWriter(file);
+	}
+
+	/**
+	 * Öffnet die Datei und lädt die Einträge mit dem passenden Fingerabdruck. Der Cache fragt sie ab, wenn ein
+	 * Wort nicht (mehr) bei ihm vorhanden ist, neue Einträge des Caches werden an die Datei angehängt.
+	 */
+	static CorrectionCacheFile open(File file, String fingerprint, CorrectionCache cache, int level) throws IOException {
+		return open(file, fingerprint, cache, level, DEFAULT_SIZE);
+	}
+
+	/** wie {@link #open(File, String, CorrectionCache, int)}, hält aber höchstens maxSize Einträge im Speicher */
+	static CorrectionCacheFile open(File file, String fingerprint, CorrectionCache cache, int level, int maxSize) throws IOException {
+		Entries entries = new Entries(maxSize);
+		int lines = 0;
+		if (file.exists()) {
+			byte[] content = Files.readAllBytes(file.toPath());
+			// nur vollständige Zeilen verwenden, eine unvollständige letzte Zeile stammt von einem abgebrochenen Lauf
+			int end = content.length;
+			while (end > 0 && content[end - 1] != '\n') {
+				end--;
+			}
+			if (end < content.length) {
+				try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+					channel.truncate(end);
+				}
+			}
+
+			try (BufferedReader reader = new BufferedReader(new StringReader(new String(content, 0, end, StandardCharsets.UTF_8)))) {
+				for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+					lines++;
+					String[] s = line.split("\t", -1);
+					if (s.length == 3 && s[0].equals(fingerprint)) {
+						entries.put(s[1], s[2]);
+					}
+				}
+			}
+		}
+
+		// zu viele veraltete Einträge? Dann nur die aktuellen behalten
+		if (lines > 2 * entries.size()) {
+			rewrite(file, fingerprint, entries);
+			lines = entries.size();
+		}
+
+		CorrectionCacheFile cacheFile = new CorrectionCacheFile(file, fingerprint, level, entries, lines);
+		cache.persist(cacheFile);
+
+		return cacheFile;
+	}
+
+	private static Writer openWriter(File file) throws IOException {
+		return Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8,
+				StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+	}
+
+	/** schreibt die Datei mit den übergebenen Einträgen neu */
+	private static void rewrite(File file, String fingerprint, Map<String, String> entries) throws IOException {
+		File tmp = new File(file.getPath() + ".tmp");
+		try (Writer out = Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8)) {
+			for (Entry<String, String> entry : entries.entrySet()) {
+				write(out, fingerprint, entry.getKey(), entry.getValue());
+			}
+		}
+		Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/** Liefert die gespeicherte Korrektur des Worts oder null */
+	synchronized String get(String token, int level) {
+		return level == this.level ? entries.get(token) : null;
+	}
+
+	/** Hängt einen Eintrag an die Datei an, sofern das Wort nicht bereits im Speicher enthalten ist */
+	synchronized void append(String token, int level, String replacement) {
+		// Tabs und Zeilenumbrüche würden das Format zerstören
+		if (level == this.level && isValid(token) && isValid(replacement)
+				&& ! entries.containsKey(token)) {
+			entries.put(token, replacement);
+			try {
+				write(writer, fingerprint, token, replacement);
+				lines++;
+				// zu viele verdrängte und erneut angehängte Einträge? Dann die Datei verkleinern
+				if (lines > 2 * entries.maxSize) {
+					writer.close();
+					rewrite(file, fingerprint, entries);
+					lines = entries.size();
+					writer = openWriter(file);
+				}
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
+
+	private static boolean isValid(String s) {
+		return s.indexOf('\t') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0;
+	}
+
+	private static void write(Writer out, String fingerprint, String token, String replacement) throws IOException {
+		out.write(fingerprint);
+		out.write('\t');
+		out.write(token);
+		out.write('\t');
+		out.write(replacement);
+		out.write('\n');
+	}
+
+	/** Anzahl der beim Öffnen geladenen Einträge */
+	int loaded() {
+		return loaded;
+	}
+
+	/** Anzahl der Zeilen in der Datei */
+	synchronized int lines() {
+		return lines;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		writer.close();
+	}
+
+	/**
+	 * Bildet den Fingerabdruck aus allen Daten, von denen das Ergebnis der Korrektur abhängt. Die Reihenfolge
+	 * der Einträge spielt dabei keine Rolle.
+	 */
+	static String fingerprint(Bag<String> dict, Map<String, String> map, Bag<String> silben, int level, String engine) {
+		long hash = VERSION;
+		hash = mix(hash + fingerprint(dict));
+		hash = mix(hash + fingerprint(silben));
+		long mapHash = map.size();
+		for (Entry<String, String> entry : map.entrySet()) {
+			mapHash += mix(hash(entry.getKey()) * 31 + hash(entry.getValue()));
+		}
+		hash = mix(hash + mapHash);
+		hash = mix(hash + level);
+		// mit der Standard-Suche bleiben vorhandene Einträge gültig
+		if (! LineProcessor.ENGINE_DEFAULT.equals(engine)) {
+			hash = mix(hash + hash(engine));
+		}
+
+		return Long.toHexString(hash);
+	}
+
+	private static long fingerprint(Bag<String> dict) {
+		long hash = dict.uniqueSet().size();
+		for (String word : dict.uniqueSet()) {
+			hash += mix(hash(word) * 31 + dict.getCount(word));
+		}
+
+		return hash;
+	}
+
+	/** Einträge mit begrenzter Größe, verdrängt werden die am längsten nicht verwendeten */
+	private static class Entries extends LinkedHashMap<String, String> {
+		private static final long serialVersionUID = 1L;
+		private final int maxSize;
+
+		Entries(int maxSize) {
+			super(16, 0.75f, true);
+			this.maxSize = maxSize;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+			return size() > maxSize;
+		}
+	}
+
+	/** 64-Bit FNV-1a Hash der Zeichenkette */
+	static long hash(String s) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < s.length(); i++) {
+			hash ^= s.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+
+		return hash;
+	}
+
+	/** verteilt die Bits gleichmäßig (Finalizer von MurmurHash3) */
+	static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+
+		return h;
+	}
+}
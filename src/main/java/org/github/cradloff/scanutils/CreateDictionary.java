@@ -2,14 +2,23 @@ package org.github.cradloff.scanutils;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
 
 import org.apache.commons.collections4.Bag;
-import org.apache.commons.collections4.bag.TreeBag;
 
 /**
  * Liest in einem Verzeichnis alle .md-Dateien ein und extrahiert daraus die Wörter für ein Wörterbuch.
@@ -17,13 +26,25 @@ import org.apache.commons.collections4.bag.TreeBag;
 public class CreateDictionary {
 	public static void main(String... args) throws IOException {
 		long start = System.currentTimeMillis();
-		if (args.length > 1) {
-			System.out.println("Aufruf: CreateDictionary <Verzeichnis>");
+		int min = 1;
+		long spill = Runtime.getRuntime().maxMemory() / 2;
+		List<String> dirNames = new ArrayList<>();
+		for (String arg : args) {
+			if (arg.startsWith("-min=")) {
+				min = Integer.parseInt(arg.substring(5));
+			} else if (arg.startsWith("-spill=")) {
+				spill = Long.parseLong(arg.substring(7)) << 20;
+			} else {
+				dirNames.add(arg);
+			}
+		}
+		if (dirNames.size() > 1) {
+			System.out.println("Aufruf: CreateDictionary [-min=<n>] [-spill=<MB>] <Verzeichnis>");
 
 			return;
 		}
 
-		String dirName = args.length == 0 ? "." : args[0];
+		String dirName = dirNames.isEmpty() ? "." : dirNames.get(0);
 		File baseDir = new File(dirName);
 		if (! baseDir.exists()) {
 			System.out.printf("Verzeichnis %s ist nicht vorhanden!%n", dirName);
@@ -36,55 +57,208 @@ public class CreateDictionary {
 			return;
 		}
 
-		// nach Markdown-Dateien suchen
-		Bag<String> dictionary = new TreeBag<>(new CaseInsensitiveComparator());
-		addWords(baseDir, dictionary);
-
 		File file = new File(baseDir, "german.dic");
-		FileAccess.writeDictionary(file, dictionary);
-		System.out.printf("Wörterbuch %s erstellt (%,d Wörter, %,d ms)%n", file.getPath(), dictionary.uniqueSet().size(),
+		int count = createDictionary(baseDir, file, min, spill);
+		System.out.printf("Wörterbuch %s erstellt (%,d Wörter, %,d ms)%n", file.getPath(), count,
 				(System.currentTimeMillis() - start));
 	}
 
+	/**
+	 * Erstellt das Wörterbuch aus allen .md-Dateien. Belegen die Tabellen zusammen mehr als <code>spill</code> Bytes,
+	 * werden sie als sortierte Zwischendateien geschrieben und am Ende zusammengeführt. Wörter, die seltener als
+	 * <code>min</code> vorkommen, entfallen. Liefert die Anzahl der Wörter.
+	 */
+	static int createDictionary(File baseDir, File file, int min, long spill) throws IOException {
+		// jeder Thread darf nur einen Teil des Speichers belegen
+		long limit = spill / (ForkJoinPool.getCommonPoolParallelism() + 1);
+		try (SortedRuns runs = new SortedRuns(baseDir, limit)) {
+			Map<Thread, WordCounter> counters = countWords(baseDir, runs);
+			if (runs.size() == 0) {
+				return FileAccess.writeDictionary(file, merge(counters), min);
+			}
+
+			// die restlichen Wörter ebenfalls schreiben und alles zusammenführen
+			for (WordCounter counter : counters.values()) {
+				runs.spill(counter);
+			}
+			System.out.printf("führe %,d Zwischendateien zusammen%n", runs.size());
+
+			return runs.merge(file, min);
+		}
+	}
+
 	static void addWords(File baseDir, Bag<String> dictionary) throws IOException {
-		// erst nach Dateien suchen
-		File[] files = baseDir.listFiles(
-				(dir, name) -> name.endsWith(".md"));
+		countWords(baseDir).addTo(dictionary);
+	}
+
+	/**
+	 * Zählt die Wörter aller .md-Dateien im Verzeichnis und den Unterverzeichnissen. Die Verzeichnisse und Dateien
+	 * werden parallel im ForkJoinPool verarbeitet, jeder Thread zählt in eine eigene Tabelle. Am Ende werden die
+	 * Tabellen paarweise zusammengeführt.
+	 */
+	static WordCounter countWords(File baseDir) throws IOException {
+		return merge(countWords(baseDir, null));
+	}
+
+	/** Zählt die Wörter, zu große Tabellen werden in Zwischendateien geschrieben */
+	private static Map<Thread, WordCounter> countWords(File baseDir, SortedRuns runs) throws IOException {
+		Map<Thread, WordCounter> counters = new ConcurrentHashMap<>();
+		try {
+			new DirectoryTask(baseDir, counters, runs).invoke();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+
+		return counters;
+	}
+
+	private static WordCounter merge(Map<Thread, WordCounter> counters) {
+		List<WordCounter> list = new ArrayList<>(counters.values());
+		if (list.isEmpty()) {
+			return new WordCounter();
+		}
+
+		return new MergeTask(list, 0, list.size()).invoke();
+	}
+
+	/** Sucht im Verzeichnis nach .md-Dateien und Unterverzeichnissen */
+	private static class DirectoryTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final File dir;
+		private final Map<Thread, WordCounter> counters;
+		private final SortedRuns runs;
+
+		DirectoryTask(File dir, Map<Thread, WordCounter> counters, SortedRuns runs) {
+			this.dir = dir;
+			this.counters = counters;
+			this.runs = runs;
+		}
+
+		@Override
+		protected void compute() {
+			List<RecursiveAction> tasks = new ArrayList<>();
+			// erst nach Dateien suchen
+			File[] files = dir.listFiles(
+					(d, name) -> name.endsWith(".md"));
+			for (File file : files) {
+				tasks.add(new FileTask(file, counters, runs));
+			}
 
-		for (File file : files) {
-			readWords(file, dictionary);
+			// weitere Unterverzeichnisse suchen
+			File[] directories = dir.listFiles(
+					path -> path.isDirectory());
+			for (File directory : directories) {
+				tasks.add(new DirectoryTask(directory, counters, runs));
+			}
+
+			invokeAll(tasks);
+		}
+	}
+
+	/** Zählt die Wörter einer Datei in die Tabelle des aktuellen Threads */
+	private static class FileTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final File file;
+		private final Map<Thread, WordCounter> counters;
+		private final SortedRuns runs;
+
+		FileTask(File file, Map<Thread, WordCounter> counters, SortedRuns runs) {
+			this.file = file;
+			this.counters = counters;
+			this.runs = runs;
+		}
+
+		@Override
+		protected void compute() {
+			WordCounter counter = counters.computeIfAbsent(Thread.currentThread(), t -> new WordCounter());
+			try {
+				if (! counter.count(file)) {
+					List<String> words = new ArrayList<>();
+					readLines(file, words);
+					words.forEach(counter::add);
+				}
+				if (runs != null) {
+					runs.spillIfFull(counter);
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/** Führt die Tabellen paarweise zusammen */
+	private static class MergeTask extends RecursiveTask<WordCounter> {
+		private static final long serialVersionUID = 1L;
+		private final List<WordCounter> counters;
+		private final int from;
+		private final int to;
+
+		MergeTask(List<WordCounter> counters, int from, int to) {
+			this.counters = counters;
+			this.from = from;
+			this.to = to;
 		}
 
-		// weitere Unterverzeichnisse suchen
+		@Override
+		protected WordCounter compute() {
+			if (to - from == 1) {
+				return counters.get(from);
+			}
+
+			int mid = (from + to) >>> 1;
+			MergeTask left = new MergeTask(counters, from, mid);
+			left.fork();
+			WordCounter right = new MergeTask(counters, mid, to).compute();
+			WordCounter result = left.join();
+			result.merge(right);
+
+			return result;
+		}
+	}
+
+	/** Sucht rekursiv nach .md-Dateien */
+	static void listFiles(File baseDir, List<File> result) {
+		File[] files = baseDir.listFiles(
+				(dir, name) -> name.endsWith(".md"));
+		result.addAll(Arrays.asList(files));
+
 		File[] directories = baseDir.listFiles(
 				path -> path.isDirectory());
-
 		for (File directory : directories) {
-			addWords(directory, dictionary);
+			listFiles(directory, result);
 		}
 	}
 
 	static void readWords(File file, Collection<String> words) throws IOException {
-		try (FileReader fr = new FileReader(file);
+		WordCounter counter = new WordCounter();
+		if (counter.count(file)) {
+			counter.addTo(words);
+		} else {
+			readLines(file, words);
+		}
+	}
+
+	/** Liest die Wörter zeilenweise ein, wird für Dateien verwendet, die kein gültiges UTF-8 enthalten */
+	static void readLines(File file, Collection<String> words) throws IOException {
+		try (Reader fr = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8);
 				BufferedReader reader = new BufferedReader(fr);) {
-			String line = reader.readLine();
-			do {
+			// der Tokenizer wird für alle Zeilen verwendet, Strings werden nur für Wörter erzeugt
+			Tokenizer tokenizer = new Tokenizer();
+			for (String line = reader.readLine(); line != null; line = reader.readLine()) {
 				// Zeile in Token zerlegen
-				List<String> tokens = TextUtils.split(line);
+				tokenizer.tokenize(line);
 				// nur Token, die mit einem Buchstaben beginnen, hinzufügen
-				for (String s : tokens) {
-					if (Character.isAlphabetic(s.charAt(0))) {
+				for (int i = 0; i < tokenizer.size(); i++) {
+					if (Character.isAlphabetic(tokenizer.firstChar(i))) {
 						// ggf. ein non-breaking-space am Ende entfernen (z.B. 'dann&nbsp;...')
-						if (s.endsWith("&nbsp")) {
-							s = s.substring(0, s.length() - 5);
+						if (tokenizer.endsWith(i, "&nbsp")) {
+							words.add(tokenizer.token(i, 0, tokenizer.length(i) - 5));
+						} else {
+							words.add(tokenizer.token(i));
 						}
-						words.add(s);
 					}
 				}
-
-				line = reader.readLine();
 			}
-			while (line != null);
 		}
 	}
 
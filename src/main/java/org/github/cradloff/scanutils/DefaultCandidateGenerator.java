@@ -0,0 +1,14 @@
+package org.github.cradloff.scanutils;
+
+/** Gängige Vertauschungen ausprobieren, siehe {@link LineProcessor#replaceCharacters(String, int)} */
+public class DefaultCandidateGenerator implements CandidateGenerator {
+	@Override
+	public String name() {
+		return LineProcessor.ENGINE_DEFAULT;
+	}
+
+	@Override
+	public String correct(LineProcessor processor, String input, int level) {
+		return processor.replaceCharacters(input, level);
+	}
+}
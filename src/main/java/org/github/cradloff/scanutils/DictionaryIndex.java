@@ -0,0 +1,119 @@
+package org.github.cradloff.scanutils;
+
+import java.util.Collections;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+import org.apache.commons.collections4.Bag;
+import org.apache.commons.collections4.bag.UnmodifiableBag;
+
+/**
+ * Unveränderlicher Index über das Wörterbuch. Der Index wird einmal pro Lauf aufgebaut und kann von
+ * mehreren Threads gleichzeitig verwendet werden. Er enthält:
+ * <ul>
+ * <li>das Wörterbuch mit allen klein geschriebenen Wörtern zusätzlich in Groß-Schreibweise und deren Häufigkeit</li>
+ * <li>eine sortierte Ansicht für die Suche nach Präfixen</li>
+ * <li>einen Trie für die zeichenweise Suche nach Kandidaten</li>
+ * <li>einen SymSpell-Index für die Suche nach Kandidaten mit kleinem Abstand</li>
+ * <li>einen Index über das Skelett der Wörter für die Suche nach typischen Vertauschungen</li>
+ * </ul>
+ */
+public class DictionaryIndex {
+	private final Bag<String> dict;
+	private final Bag<String> ciDict;
+	// die sortierten Ansichten werden erst bei Bedarf aufgebaut
+	private volatile NavigableSet<String> treeView;
+	private volatile DictionaryTrie trie;
+	private volatile SymSpellIndex symSpell;
+	private volatile SkeletonIndex skeleton;
+
+	public DictionaryIndex(Bag<String> dict) {
+		this.dict = UnmodifiableBag.unmodifiableBag(dict);
+		// klein geschriebene Wörter auch in Groß-Schreibweise hinzufügen
+		ciDict = UnmodifiableBag.unmodifiableBag(TextUtils.addUpperCase(dict));
+	}
+
+	/** Ist das Wort (ggf. in Groß-Schreibweise) im Wörterbuch enthalten? */
+	public boolean contains(String word) {
+		return ciDict.contains(word);
+	}
+
+	/** Liefert die Häufigkeit des Worts */
+	public int getCount(String word) {
+		return ciDict.getCount(word);
+	}
+
+	/** Das Wörterbuch in der ursprünglichen Schreibweise */
+	public Bag<String> dict() {
+		return dict;
+	}
+
+	/** Das Wörterbuch inklusive der Groß-Schreibweisen */
+	public Bag<String> ciDict() {
+		return ciDict;
+	}
+
+	/** Sortierte Ansicht des Wörterbuchs für die Suche nach Präfixen */
+	public NavigableSet<String> treeView() {
+		NavigableSet<String> result = treeView;
+		if (result == null) {
+			synchronized (this) {
+				result = treeView;
+				if (result == null) {
+					result = Collections.unmodifiableNavigableSet(new TreeSet<>(ciDict.uniqueSet()));
+					treeView = result;
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/** Trie über das Wörterbuch inklusive der Groß-Schreibweisen */
+	public DictionaryTrie trie() {
+		DictionaryTrie result = trie;
+		if (result == null) {
+			synchronized (this) {
+				result = trie;
+				if (result == null) {
+					result = new DictionaryTrie(ciDict);
+					trie = result;
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/** SymSpell-Index über das Wörterbuch inklusive der Groß-Schreibweisen */
+	SymSpellIndex symSpell() {
+		SymSpellIndex result = symSpell;
+		if (result == null) {
+			synchronized (this) {
+				result = symSpell;
+				if (result == null) {
+					result = new SymSpellIndex(ciDict.uniqueSet());
+					symSpell = result;
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/** Skelett-Index über das Wörterbuch inklusive der Groß-Schreibweisen */
+	SkeletonIndex skeleton() {
+		SkeletonIndex result = skeleton;
+		if (result == null) {
+			synchronized (this) {
+				result = skeleton;
+				if (result == null) {
+					result = new SkeletonIndex(ciDict.uniqueSet());
+					skeleton = result;
+				}
+			}
+		}
+
+		return result;
+	}
+}
@@ -0,0 +1,198 @@
+package org.github.cradloff.scanutils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.collections4.Bag;
+
+/**
+ * Kompakter, unveränderlicher Trie über alle Wörter des Wörterbuchs. Die Knoten werden ebenenweise in Arrays
+ * abgelegt, die Kinder eines Knotens liegen dabei direkt hintereinander und sind nach dem Zeichen sortiert.
+ * Knoten werden über ihren Index angesprochen, der Wurzelknoten hat den Index 0, nicht vorhandene Knoten -1.
+ * <p>
+ * Zu jedem Knoten wird die größte Häufigkeit eines Worts im Teilbaum gespeichert. Dabei zählen auch die anderen
+ * Schreibweisen (Groß-/Kleinschreibung) der Wörter mit, sodass sich daraus eine obere Schranke für den
+ * Häufigkeitsbonus aller Schreibweisen ergibt.
+ */
+public class DictionaryTrie {
+	/** Index des Wurzelknotens */
+	public static final int ROOT = 0;
+
+	/** Zeichen, über das der Knoten erreicht wird */
+	private final char[] label;
+	/** Index des ersten Kinds, die Kinder von Knoten i liegen in [first[i], first[i + 1]) */
+	private final int[] first;
+	/** Häufigkeit des Worts, das an diesem Knoten endet, 0 wenn hier kein Wort endet */
+	private final int[] count;
+	/** größte Häufigkeit eines Worts im Teilbaum, einschließlich der anderen Schreibweisen */
+	private final int[] maxCount;
+
+	public DictionaryTrie(Bag<String> dict) {
+		String[] words = dict.uniqueSet().toArray(new String[0]);
+		Arrays.sort(words);
+
+		// obere Grenze für die Anzahl der Knoten
+		long maxNodes = 1;
+		for (String word : words) {
+			maxNodes += word.length();
+		}
+		char[] label = new char[(int) maxNodes];
+		int[] first = new int[(int) maxNodes + 1];
+		int[] count = new int[(int) maxNodes];
+		int[] maxCount = new int[(int) maxNodes];
+
+		// größte Häufigkeit je Wort ohne Berücksichtigung der Groß-/Kleinschreibung
+		Map<String, Integer> foldedCount = new HashMap<>();
+		for (String word : words) {
+			foldedCount.merge(foldCase(word), dict.getCount(word), Math::max);
+		}
+
+		// die Knoten einer Ebene werden als Bereiche [lo, hi) im sortierten Array verwaltet
+		int[] lo = { 0 };
+		int[] hi = { words.length };
+		int nodes = 1;
+		int node = 0;
+		for (int depth = 0; lo.length > 0; depth++) {
+			int[] nextLo = new int[16];
+			int[] nextHi = new int[16];
+			int next = 0;
+			for (int i = 0; i < lo.length; i++, node++) {
+				int start = lo[i];
+				// das kürzeste Wort steht vorne, endet es hier?
+				if (start < hi[i] && words[start].length() == depth) {
+					count[node] = dict.getCount(words[start]);
+					maxCount[node] = foldedCount.get(foldCase(words[start]));
+					start++;
+				}
+				first[node] = nodes;
+				// Wörter nach dem Zeichen an der aktuellen Position gruppieren
+				while (start < hi[i]) {
+					char ch = words[start].charAt(depth);
+					int end = start + 1;
+					while (end < hi[i] && words[end].charAt(depth) == ch) {
+						end++;
+					}
+					if (next == nextLo.length) {
+						nextLo = Arrays.copyOf(nextLo, next * 2);
+						nextHi = Arrays.copyOf(nextHi, next * 2);
+					}
+					nextLo[next] = start;
+					nextHi[next] = end;
+					next++;
+					label[nodes++] = ch;
+					start = end;
+				}
+			}
+			lo = Arrays.copyOf(nextLo, next);
+			hi = Arrays.copyOf(nextHi, next);
+		}
+		first[nodes] = nodes;
+
+		this.label = Arrays.copyOf(label, nodes);
+		this.first = Arrays.copyOf(first, nodes + 1);
+		this.count = Arrays.copyOf(count, nodes);
+		// die Kinder liegen immer hinter ihrem Elternknoten, die Maxima werden daher von hinten nach vorne gebildet
+		for (int i = nodes - 1; i >= 0; i--) {
+			for (int child = first[i]; child < first[i + 1]; child++) {
+				maxCount[i] = Math.max(maxCount[i], maxCount[child]);
+			}
+		}
+		this.maxCount = Arrays.copyOf(maxCount, nodes);
+	}
+
+	/** Vereinheitlicht die Schreibweise so, dass genau die mit equalsIgnoreCase gleichen Zeichen gleich sind */
+	static char foldCase(char ch) {
+		return Character.toLowerCase(Character.toUpperCase(ch));
+	}
+
+	private static String foldCase(String word) {
+		char[] chars = word.toCharArray();
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = foldCase(chars[i]);
+		}
+
+		return new String(chars);
+	}
+
+	/** Liefert den Kind-Knoten mit dem angegebenen Zeichen oder -1 */
+	public int child(int node, char ch) {
+		if (node < 0) {
+			return -1;
+		}
+
+		// binäre Suche über die sortierten Kinder
+		int low = first[node];
+		int high = first[node + 1] - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			char c = label[mid];
+			if (c < ch) {
+				low = mid + 1;
+			} else if (c > ch) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+
+		return -1;
+	}
+
+	/** Folgt ausgehend vom Knoten den Zeichen der Zeichenkette, liefert -1, wenn es keinen passenden Knoten gibt */
+	public int walk(int node, CharSequence s) {
+		return walk(node, s, 0, s.length());
+	}
+
+	public int walk(int node, CharSequence s, int start, int end) {
+		int result = node;
+		for (int i = start; i < end && result >= 0; i++) {
+			result = child(result, s.charAt(i));
+		}
+
+		return result;
+	}
+
+	/** Endet am Knoten ein Wort? */
+	public boolean isWord(int node) {
+		return node >= 0 && count[node] > 0;
+	}
+
+	/** Häufigkeit des Worts, das am Knoten endet */
+	public int count(int node) {
+		return node < 0 ? 0 : count[node];
+	}
+
+	/**
+	 * Größte Häufigkeit eines Worts im Teilbaum des Knotens. Berücksichtigt werden auch die anderen Schreibweisen
+	 * dieser Wörter, selbst wenn sie in einem anderen Teilbaum liegen.
+	 */
+	public int maxCount(int node) {
+		return node < 0 ? 0 : maxCount[node];
+	}
+
+	/** Ist das Wort im Trie enthalten? */
+	public boolean contains(CharSequence word) {
+		return isWord(walk(ROOT, word));
+	}
+
+	/** Index des ersten Kinds */
+	public int firstChild(int node) {
+		return first[node];
+	}
+
+	/** Index hinter dem letzten Kind */
+	public int endChild(int node) {
+		return first[node + 1];
+	}
+
+	/** Zeichen, über das der Knoten erreicht wird */
+	public char label(int node) {
+		return label[node];
+	}
+
+	/** Anzahl der Knoten */
+	public int size() {
+		return label.length;
+	}
+}
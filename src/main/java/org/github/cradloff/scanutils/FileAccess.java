@@ -1,7 +1,7 @@
 package org.github.cradloff.scanutils;
 
 import java.io.*;
-import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.text.NumberFormat;
 import java.text.ParseException;
 import java.util.*;
@@ -50,7 +50,24 @@ public class FileAccess {
 		return dict;
 	}
 
+	/**
+	 * Liest das Wörterbuch ein. Ist eine kompilierte Fassung vorhanden, die nicht älter als die
+	 * Text-Datei ist, wird diese verwendet.
+	 */
 	static Bag<String> readDict(File file) throws IOException {
+		if (CompiledDictionary.isUpToDate(file)) {
+			try {
+				return CompiledDictionary.read(CompiledDictionary.compiledFile(file));
+			} catch (IOException e) {
+				System.out.printf("Warnung: %s, verwende %s%n", e.getMessage(), file.getPath());
+			}
+		}
+
+		return readTextDict(file);
+	}
+
+	/** Liest das Wörterbuch aus der Text-Datei ein */
+	static Bag<String> readTextDict(File file) throws IOException {
 		Bag<String> dict = new HashBag<>();
 		NumberFormat nf = NumberFormat.getIntegerInstance();
 		readFile(file, line -> {
@@ -80,8 +97,9 @@ public class FileAccess {
 	static Map<String, String> readCSV(File file) throws IOException {
 		return readCSV(file, "\\s");
 	}
+	/** Liest eine Datei mit Schlüssel und Wert je Zeile, die Reihenfolge der Datei bleibt erhalten */
 	static Map<String, String> readCSV(File file, String separator) throws IOException {
-		Map<String, String> map = new HashMap<>();
+		Map<String, String> map = new LinkedHashMap<>();
 		readFile(file, line -> {
 					String[] s = line.trim().split(separator, 2);
 					map.put(s[0], s[1]);
@@ -127,7 +145,7 @@ public class FileAccess {
 				throw new FileNotFoundException(filename);
 			}
 
-			try (BufferedReader reader = new BufferedReader(new InputStreamReader(is, Charset.defaultCharset()))) {
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
 				Map<String, List<String>> result = new HashMap<>();
 				List<String> lines = new ArrayList<>();
 				result.put(null, lines);
@@ -241,4 +259,26 @@ public class FileAccess {
 			}
 		}
 	}
+
+	/**
+	 * Schreibt die gezählten Wörter in derselben Form und Reihenfolge wie ein Wörterbuch aus einem TreeBag. Wörter,
+	 * die seltener als <code>min</code> vorkommen, entfallen. Liefert die Anzahl der geschriebenen Wörter.
+	 */
+	static int writeDictionary(File file, WordCounter counter, int min) throws IOException {
+		int[] sorted = counter.sorted(new CaseInsensitiveComparator());
+		int count = 0;
+		try (FileWriter writer = new FileWriter(file);
+				PrintWriter out = new PrintWriter(writer)) {
+			for (int index : sorted) {
+				if (counter.count(index) >= min) {
+					out.print(counter.word(index));
+					out.print("\t");
+					out.println(counter.count(index));
+					count++;
+				}
+			}
+		}
+
+		return count;
+	}
 }
@@ -0,0 +1,279 @@
+package org.github.cradloff.scanutils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Gewichteter Levenshtein-Automat für ein Wort, der in einem Durchgang über den {@link DictionaryTrie} das
+ * beste Wort sucht. Einfügen, Löschen und Ersetzen eines Zeichens kosten {@link #EDIT_COST}, typische
+ * Vertauschungen (siehe {@link #similar(int, int, String)}) nur {@link #SIMILAR_COST}. Die Groß-/Kleinschreibung
+ * des ersten Zeichens spielt keine Rolle.
+ * <p>
+ * Bewertet wird wie in {@link LineProcessor} die Abweichung abzüglich eines Bonus für häufige Wörter, bei gleicher
+ * Bewertung gewinnt das häufigere Wort. Der Bonus wird direkt beim Durchlaufen des Tries abgezogen. Teilbäume,
+ * deren Kosten auch mit dem größten Bonus im Teilbaum (siehe {@link DictionaryTrie#maxCount(int)}) nicht mehr an
+ * das bisher beste Wort heranreichen, werden übersprungen.
+ * <p>
+ * Der Automat wird je Wort angelegt und ist nicht threadsicher.
+ */
+class LevenshteinAutomaton {
+	/** Kosten für Einfügen, Löschen oder Ersetzen eines beliebigen Zeichens */
+	static final int EDIT_COST = 2;
+	/** Kosten für eine typische Vertauschung */
+	static final int SIMILAR_COST = 1;
+
+	/** Ersetzung von input[start, start + length) durch replacement */
+	private static class Transition {
+		final int start;
+		final int length;
+		final String replacement;
+
+		Transition(int start, int length, String replacement) {
+			this.start = start;
+			this.length = length;
+			this.replacement = replacement;
+		}
+	}
+
+	private final String input;
+	private final char[] chars;
+	/** erstes Zeichen in der jeweils anderen Schreibweise */
+	private final char otherCase;
+	/** typische Vertauschungen je Endposition im Wort */
+	private final List<List<Transition>> transitions;
+	/**
+	 * Vertauschungen je Endposition, sortiert nach dem letzten Zeichen der Ersetzung, damit je Zelle nur die
+	 * passenden geprüft werden. Ersetzungen durch nichts stehen vorne.
+	 */
+	private Transition[][] byEnd;
+	private char[][] lastChars;
+	private int[] empty;
+	/** typische Vertauschungen mit mehr als einem Zeichen Ersetzung */
+	private final List<Transition> longTransitions = new ArrayList<>();
+
+	// Zustand der Suche
+	private DictionaryTrie trie;
+	private int maxCost;
+	private int[][] rows;
+	private int[] rowMin;
+	private char[] path;
+	private String best;
+	private int bestScore;
+	private int bestCount;
+
+	LevenshteinAutomaton(String input) {
+		this.input = input;
+		chars = input.toCharArray();
+		char first = input.isEmpty() ? 0 : input.charAt(0);
+		otherCase = Character.isUpperCase(first) ? Character.toLowerCase(first) : Character.toUpperCase(first);
+		transitions = new ArrayList<>(input.length() + 1);
+		for (int i = 0; i <= input.length(); i++) {
+			transitions.add(new ArrayList<>());
+		}
+	}
+
+	/** Die Zeichen input[start, start + length) dürfen zu geringen Kosten durch die Ersetzung getauscht werden */
+	void similar(int start, int length, String replacement) {
+		Transition transition = new Transition(start, length, replacement);
+		transitions.get(start + length).add(transition);
+		if (replacement.length() > 1) {
+			longTransitions.add(transition);
+		}
+	}
+
+	/**
+	 * Liefert das Wort mit der besten Bewertung, dessen Kosten höchstens <code>maxCost</code> betragen, oder
+	 * null, wenn es kein solches Wort gibt.
+	 */
+	String search(DictionaryTrie trie, int maxCost) {
+		this.trie = trie;
+		this.maxCost = maxCost;
+		rows = new int[input.length() + 2][];
+		rowMin = new int[rows.length];
+		path = new char[rows.length];
+		best = null;
+		bestScore = Integer.MAX_VALUE;
+		bestCount = 0;
+
+		sortTransitions();
+		computeRow(0);
+		if (trie.isWord(DictionaryTrie.ROOT)) {
+			consider(0, DictionaryTrie.ROOT);
+		}
+		search(DictionaryTrie.ROOT, 0);
+
+		return best;
+	}
+
+	private void sortTransitions() {
+		int n = input.length();
+		byEnd = new Transition[n + 1][];
+		lastChars = new char[n + 1][];
+		empty = new int[n + 1];
+		for (int i = 0; i <= n; i++) {
+			Transition[] sorted = transitions.get(i).toArray(new Transition[0]);
+			Arrays.sort(sorted, (t1, t2) -> Character.compare(lastChar(t1), lastChar(t2)));
+			byEnd[i] = sorted;
+			lastChars[i] = new char[sorted.length];
+			for (int k = 0; k < sorted.length; k++) {
+				lastChars[i][k] = lastChar(sorted[k]);
+				if (sorted[k].replacement.isEmpty()) {
+					empty[i]++;
+				}
+			}
+		}
+	}
+
+	private static char lastChar(Transition t) {
+		String replacement = t.replacement;
+		return replacement.isEmpty() ? 0 : replacement.charAt(replacement.length() - 1);
+	}
+
+	/** Bewertung des besten Worts, {@link Integer#MAX_VALUE} wenn keins gefunden wurde */
+	int bestScore() {
+		return bestScore;
+	}
+
+	private void search(int node, int depth) {
+		if (depth + 1 >= rows.length) {
+			rows = Arrays.copyOf(rows, rows.length * 2);
+			rowMin = Arrays.copyOf(rowMin, rows.length);
+			path = Arrays.copyOf(path, rows.length);
+		}
+
+		for (int child = trie.firstChild(node); child < trie.endChild(node); child++) {
+			path[depth] = trie.label(child);
+			computeRow(depth + 1);
+			if (trie.isWord(child)) {
+				consider(depth + 1, child);
+			}
+
+			// auch mit dem größten Bonus im Teilbaum nicht besser als das bisher beste Wort?
+			long limit = Math.min(maxCost, (long) bestScore + EDIT_COST * bonus(Integer.MAX_VALUE, trie.maxCount(child)));
+			if (rowMin[depth + 1] <= limit || reachable(depth + 1, limit)) {
+				search(child, depth + 1);
+			}
+		}
+	}
+
+	/** Berechnet die Kosten für input[0, i) gegenüber path[0, depth) */
+	private void computeRow(int depth) {
+		int n = input.length();
+		int[] row = rows[depth];
+		if (row == null) {
+			row = new int[n + 1];
+			rows[depth] = row;
+		}
+		int[] prev = depth > 0 ? rows[depth - 1] : null;
+		char ch = depth > 0 ? path[depth - 1] : 0;
+		int min = Integer.MAX_VALUE;
+		for (int i = 0; i <= n; i++) {
+			int cost = Integer.MAX_VALUE / 2;
+			if (prev != null) {
+				// Zeichen einfügen
+				cost = prev[i] + EDIT_COST;
+				if (i > 0) {
+					// Zeichen übernehmen oder ersetzen, beim ersten Zeichen ist die Schreibweise egal
+					char c = input.charAt(i - 1);
+					boolean match = c == ch || i == 1 && otherCase == ch;
+					cost = Math.min(cost, prev[i - 1] + (match ? 0 : EDIT_COST));
+				}
+			} else if (i == 0) {
+				cost = 0;
+			}
+			if (i > 0) {
+				// Zeichen löschen
+				cost = Math.min(cost, row[i - 1] + EDIT_COST);
+			}
+			// typische Vertauschungen, zuerst die Ersetzungen durch nichts
+			Transition[] candidates = byEnd[i];
+			for (int k = 0; k < empty[i]; k++) {
+				cost = Math.min(cost, row[i - candidates[k].length] + SIMILAR_COST);
+			}
+			if (depth > 0) {
+				char[] last = lastChars[i];
+				for (int k = firstIndex(last, empty[i], ch); k < last.length && last[k] == ch; k++) {
+					Transition t = candidates[k];
+					int length = t.replacement.length();
+					if (length <= depth && endsWith(depth, t.replacement)) {
+						cost = Math.min(cost, rows[depth - length][i - t.length] + SIMILAR_COST);
+					}
+				}
+			}
+			row[i] = cost;
+			min = Math.min(min, cost);
+		}
+		rowMin[depth] = min;
+	}
+
+	/**
+	 * Können Wörter, die mit path[0, depth) beginnen, über eine erst teilweise durchlaufene Ersetzung noch
+	 * Kosten bis zum Limit erreichen? Die aktuelle Zeile ist zu diesem Zeitpunkt bereits zu teuer.
+	 */
+	private boolean reachable(int depth, long limit) {
+		for (Transition t : longTransitions) {
+			String replacement = t.replacement;
+			for (int consumed = 1; consumed < replacement.length() && consumed <= depth; consumed++) {
+				if (rows[depth - consumed][t.start] + SIMILAR_COST <= limit && matches(replacement, depth - consumed, consumed)) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	/** Position des ersten Zeichens ab from, das größer oder gleich ch ist */
+	private static int firstIndex(char[] chars, int from, char ch) {
+		int low = from;
+		int high = chars.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (chars[mid] < ch) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+
+		return low;
+	}
+
+	private boolean endsWith(int depth, String s) {
+		return matches(s, depth - s.length(), s.length());
+	}
+
+	/** Stimmen die ersten length Zeichen von s mit path[offset, offset + length) überein? */
+	private boolean matches(String s, int offset, int length) {
+		for (int i = length - 1; i >= 0; i--) {
+			if (path[offset + i] != s.charAt(i)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private void consider(int depth, int node) {
+		int cost = rows[depth][input.length()];
+		if (cost > maxCost) {
+			return;
+		}
+
+		int count = trie.count(node);
+		int score = cost - EDIT_COST * bonus(depth, count);
+		if (score < bestScore || score == bestScore && (count > bestCount
+				// bei gleicher Häufigkeit die Schreibweise des Originals bevorzugen
+				|| count == bestCount && path[0] == input.charAt(0) && best.charAt(0) != input.charAt(0))) {
+			best = new String(path, 0, depth);
+			bestScore = score;
+			bestCount = count;
+		}
+	}
+
+	/** Bonus für häufige Wörter wie in {@link LineProcessor}, höchstens ein Zeichen je drei Buchstaben */
+	static int bonus(int length, int count) {
+		return Math.min(length / 3, (int) Math.log10(Math.max(1, count)));
+	}
+}
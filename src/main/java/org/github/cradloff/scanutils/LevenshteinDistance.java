@@ -73,14 +73,46 @@ public class LevenshteinDistance {
 			throw new IllegalArgumentException("Strings must not be null");
 		}
 
-		/*
-               This implementation use two variable to record the previous cost counts,
-               So this implementation use less memory than previous impl.
-		 */
+		return compare(left, right, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * <p>Find the Levenshtein distance between two Strings if it's less than or equal to a given
+	 * threshold.</p>
+	 *
+	 * <p>For words of up to 64 characters the bit-parallel algorithm of Myers is used, which
+	 * processes a whole column of the distance matrix in a few long operations. Longer
+	 * words fall back to the row-by-row algorithm. Both stop as soon as the threshold can
+	 * no longer be met. The buffers are kept per thread, so no memory is allocated per call.</p>
+	 *
+	 * <pre>
+	 * distance.apply("frog", "fog", 1)       = 1
+	 * distance.apply("fly", "ant", 2)        = -1
+	 * distance.apply("elephant", "hippo", 7) = 7
+	 * distance.apply("elephant", "hippo", 6) = -1
+	 * </pre>
+	 *
+	 * @param left the first string, must not be null
+	 * @param right the second string, must not be null
+	 * @param threshold the target threshold, must not be negative
+	 * @return result distance, or -1 if the distance exceeds the threshold
+	 * @throws IllegalArgumentException if either String input {@code null} or the threshold is negative
+	 */
+	public static int compare(CharSequence left, CharSequence right, int threshold) {
+		if (left == null || right == null) {
+			throw new IllegalArgumentException("Strings must not be null");
+		}
+		if (threshold < 0) {
+			throw new IllegalArgumentException("Threshold must not be negative");
+		}
 
 		int n = left.length(); // length of left
 		int m = right.length(); // length of right
 
+		// the distance is at least the difference of the lengths
+		if (Math.abs(n - m) > threshold) {
+			return -1;
+		}
 		if (n == 0) {
 			return m;
 		} else if (m == 0) {
@@ -88,7 +120,7 @@ public class LevenshteinDistance {
 		}
 
 		if (n > m) {
-			// swap the input strings to consume less memory
+			// swap the input strings, the shorter one is the pattern
 			final CharSequence tmp = left;
 			left = right;
 			right = tmp;
@@ -96,7 +128,64 @@ public class LevenshteinDistance {
 			m = right.length();
 		}
 
-		int[] p = new int[n + 1];
+		Buffers buffers = BUFFERS.get();
+		if (n <= 64) {
+			return myers(left, right, threshold, buffers);
+		}
+
+		return rows(left, right, threshold, buffers);
+	}
+
+	/**
+	 * Bit-parallel algorithm of Myers (1999) in the formulation of Hyyrö (2001). Each bit of the
+	 * vectors stands for one character of the pattern, they hold the vertical differences
+	 * (+1, -1) between neighbouring cells of the current column.
+	 */
+	private static int myers(CharSequence pattern, CharSequence text, int threshold, Buffers buffers) {
+		int n = pattern.length();
+		int m = text.length();
+		buffers.setPattern(pattern);
+		try {
+			long last = 1L << (n - 1);
+			long pv = -1L; // positive vertical differences
+			long mv = 0L; // negative vertical differences
+			int score = n;
+			for (int j = 0; j < m; j++) {
+				long eq = buffers.mask(text.charAt(j));
+				long xv = eq | mv;
+				long xh = (((eq & pv) + pv) ^ pv) | eq;
+				long ph = mv | ~(xh | pv);
+				long mh = pv & xh;
+				if ((ph & last) != 0) {
+					score++;
+				} else if ((mh & last) != 0) {
+					score--;
+				}
+				// each remaining column can decrease the score by at most one
+				if (score - (m - j - 1) > threshold) {
+					return -1;
+				}
+				// the first row grows by one in each column
+				ph = (ph << 1) | 1;
+				mh <<= 1;
+				pv = mh | ~(xv | ph);
+				mv = ph & xv;
+			}
+
+			return score <= threshold ? score : -1;
+		} finally {
+			buffers.clearPattern(pattern);
+		}
+	}
+
+	/**
+	 * Row-by-row algorithm for long words. It only keeps the previous row and stops as soon
+	 * as all cells of a row exceed the threshold.
+	 */
+	private static int rows(CharSequence left, CharSequence right, int threshold, Buffers buffers) {
+		int n = left.length();
+		int m = right.length();
+		int[] p = buffers.row(n + 1);
 
 		// indexes into strings left and right
 		int i; // iterates through left
@@ -115,6 +204,7 @@ public class LevenshteinDistance {
 			upper_left = p[0];
 			rightJ = right.charAt(j - 1);
 			p[0] = j;
+			int min = j;
 
 			for (i = 1; i <= n; i++) {
 				upper = p[i];
@@ -122,11 +212,79 @@ public class LevenshteinDistance {
 				// minimum of cell to the left+1, to the top+1, diagonally left and up +cost
 				p[i] = Math.min(Math.min(p[i - 1] + 1, p[i] + 1), upper_left + cost);
 				upper_left = upper;
+				min = Math.min(min, p[i]);
+			}
+
+			if (min > threshold) {
+				return -1;
 			}
 		}
 
-		return p[n];
+		return p[n] <= threshold ? p[n] : -1;
 	}
 
-}
+	private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+	/** Buffers of a thread, they are reused for each comparison */
+	private static class Buffers {
+		/** bit masks for the characters of the pattern below 256 */
+		private final long[] latin = new long[256];
+		/** bit masks for all other characters */
+		private final char[] otherChars = new char[64];
+		private final long[] otherMasks = new long[64];
+		private int others;
+		private int[] row = new int[0];
+
+		void setPattern(CharSequence pattern) {
+			for (int i = 0; i < pattern.length(); i++) {
+				char ch = pattern.charAt(i);
+				long bit = 1L << i;
+				if (ch < 256) {
+					latin[ch] |= bit;
+				} else {
+					int k = 0;
+					while (k < others && otherChars[k] != ch) {
+						k++;
+					}
+					if (k == others) {
+						otherChars[k] = ch;
+						otherMasks[k] = 0;
+						others++;
+					}
+					otherMasks[k] |= bit;
+				}
+			}
+		}
+
+		void clearPattern(CharSequence pattern) {
+			for (int i = 0; i < pattern.length(); i++) {
+				char ch = pattern.charAt(i);
+				if (ch < 256) {
+					latin[ch] = 0;
+				}
+			}
+			others = 0;
+		}
+
+		long mask(char ch) {
+			if (ch < 256) {
+				return latin[ch];
+			}
+			for (int k = 0; k < others; k++) {
+				if (otherChars[k] == ch) {
+					return otherMasks[k];
+				}
+			}
+
+			return 0;
+		}
+
+		int[] row(int length) {
+			if (row.length < length) {
+				row = new int[Math.max(length, row.length * 2)];
+			}
 
+			return row;
+		}
+	}
+}
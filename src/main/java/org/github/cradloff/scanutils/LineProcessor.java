@@ -9,34 +9,60 @@ import org.apache.commons.collections4.Bag;
 import org.github.cradloff.scanutils.PreProcess.Parameter;
 
 public class LineProcessor implements Callable<LineProcessor.Result> {
-	static Future<Result> EMPTY_LINE = new Future<>() {
-
-		@Override
-		public boolean cancel(boolean mayInterruptIfRunning) {
-			return false;
-		}
-
-		@Override
-		public boolean isCancelled() {
-			return false;
-		}
-
-		@Override
-		public boolean isDone() {
-			return false;
+	/**
+	 * Arbeitspaket mit mehreren aufeinander folgenden Zeilen, z.B. einem Absatz. Die Ergebnisse werden in
+	 * der Reihenfolge der Zeilen zurückgeliefert.
+	 */
+	static class Chunk implements Callable<List<Result>> {
+		private Parameter params;
+		private Map<String, String> map;
+		private DictionaryIndex dictionary;
+		private Bag<String> silben;
+		private CorrectionCache cache;
+		private List<List<String>> lines = new ArrayList<>();
+		private int tokens;
+
+		public Chunk(Parameter params, Map<String, String> map, DictionaryIndex dictionary, Bag<String> silben, CorrectionCache cache) {
+			this.params = params;
+			this.map = map;
+			this.dictionary = dictionary;
+			this.silben = silben;
+			this.cache = cache;
+		}
+
+		public void add(List<String> line) {
+			lines.add(line);
+			tokens += line.size();
+		}
+
+		public boolean isEmpty() {
+			return lines.isEmpty();
+		}
+
+		/**
+		 * Prüft, ob das Paket abgeschlossen werden soll. Am Absatzende wird abgeschlossen, wenn das Paket
+		 * mindestens halb voll ist, ansonsten erst, wenn es die volle Größe erreicht hat.
+		 */
+		public boolean isFull(boolean endOfParagraph) {
+			int chunkSize = params.getChunkSize();
+			return tokens >= chunkSize
+					|| endOfParagraph && tokens >= chunkSize / 2;
 		}
 
 		@Override
-		public Result get() throws InterruptedException, ExecutionException {
-			return Result.EMPTY_RESULT;
-		}
+		public List<Result> call() {
+			List<Result> results = new ArrayList<>(lines.size());
+			for (List<String> line : lines) {
+				if (line.isEmpty()) {
+					results.add(Result.EMPTY_RESULT);
+				} else {
+					results.add(new LineProcessor(params, line, map, dictionary, silben, cache).call());
+				}
+			}
 
-		@Override
-		public Result get(long timeout, TimeUnit unit)
-				throws InterruptedException, ExecutionException, TimeoutException {
-			return Result.EMPTY_RESULT;
+			return results;
 		}
-	};
+	}
 
 	static class Result {
 		static final Result EMPTY_RESULT = new Result();
@@ -70,22 +96,39 @@ public class LineProcessor implements Callable<LineProcessor.Result> {
 		}
 	}
 
+	/** Suche nach Kandidaten über gängige Vertauschungen, siehe {@link #replaceCharacters(String, int)} */
+	static final String ENGINE_DEFAULT = "default";
+	/** Suche nach Kandidaten über den SymSpell-Index, siehe {@link #symSpell(String, int)} */
+	static final String ENGINE_SYMSPELL = "symspell";
+	/** Suche nach Kandidaten über den Skelett-Index, siehe {@link #skeleton(String, int)} */
+	static final String ENGINE_SKELETON = "skeleton";
+	/** Suche nach Kandidaten über einen gewichteten Levenshtein-Automaten, siehe {@link #automaton(String, int)} */
+	static final String ENGINE_AUTOMATON = "automaton";
+
 	private Parameter params;
 	private List<String> line;
 	private Map<String, String> map;
-	private Bag<String> ciDict;
-	/** Baum-Ansicht des Dictionary */
-	private SortedSet<String> treeView;
-	private SortedSet<String> invDict;
+	private DictionaryIndex dictionary;
 	private Bag<String> silben;
-	public LineProcessor(Parameter params, List<String> line, Map<String, String> map, Bag<String> ciDict, SortedSet<String> invDict, SortedSet<String> treeView, Bag<String> silben) {
+	/** Cache für bereits korrigierte Wörter, ggf. null */
+	private CorrectionCache cache;
+	public LineProcessor(Parameter params, List<String> line, Map<String, String> map, DictionaryIndex dictionary, Bag<String> silben) {
+		this(params, line, map, dictionary, silben, null);
+	}
+
+	public LineProcessor(Parameter params, List<String> line, Map<String, String> map, DictionaryIndex dictionary, Bag<String> silben,
+			CorrectionCache cache) {
 		this.params = params;
 		this.line = line;
 		this.map = map;
-		this.ciDict = ciDict;
-		this.invDict = invDict;
-		this.treeView = treeView;
+		this.dictionary = dictionary;
 		this.silben = silben;
+		this.cache = cache;
+	}
+
+	/** Das Wörterbuch, z.B. für eigene {@link CandidateGenerator}en */
+	public DictionaryIndex dictionary() {
+		return dictionary;
 	}
 
 	@Override
@@ -117,13 +160,13 @@ public class LineProcessor implements Callable<LineProcessor.Result> {
 			}
 
 			// Satzzeichen in Wörtern entfernen
-			while (TextUtils.isWord(token) && i < line.size() - 1 && line.get(i + 1).matches("[.,»«\"]") && TextUtils.textAfter(line, i + 1)) {
+			while (TextUtils.isWord(token) && i < line.size() - 1 && isPunctuationInWord(line.get(i + 1)) && TextUtils.textAfter(line, i + 1)) {
 				token += line.get(i + 2);
 				PreProcess.remove(line, i + 1, 2);
 			}
 
 			// Satzzeichen in Wörtern ersetzen
-			if (TextUtils.isWord(token) && i < line.size() - 1 && line.get(i + 1).matches("[;:!()\\[\\]{}»«„“”\"*_]+") && TextUtils.textAfter(line, i + 1)) {
+			if (TextUtils.isWord(token) && i < line.size() - 1 && isPunctuationToReplace(line.get(i + 1)) && TextUtils.textAfter(line, i + 1)) {
 				token += line.get(i + 1) + line.get(i + 2);
 				PreProcess.remove(line, i + 1, 2);
 			}
@@ -131,7 +174,7 @@ public class LineProcessor implements Callable<LineProcessor.Result> {
 			// Satzzeichen ersetzen
 			token = TextUtils.satzzeichenErsetzen(token);
 			// ,, durch » ersetzen
-			if (token.matches("[,.]{2}") && TextUtils.textAfter(line, i)) {
+			if (token.length() == 2 && TextUtils.consistsOf(token, ",.") && TextUtils.textAfter(line, i)) {
 				token = "»";
 			}
 
@@ -146,15 +189,15 @@ public class LineProcessor implements Callable<LineProcessor.Result> {
 			String replacement = ausrufezeichenErsetzen(token, i);
 
 			// Wörter ersetzen
-			replacement = process(i, replacement);
+			replacement = process(replacement);
 
 			// durch Leerzeichen getrennte Wörter zusammenfassen
 			if (TextUtils.isWord(token) && whitespaceAfter(line, i) && TextUtils.textAfter(line, i + 1)
-					&& replacement.equals(token) && ! ciDict.contains(replacement) && ! ciDict.contains(line.get(i + 2))) {
+					&& replacement.equals(token) && ! dictionary.contains(replacement) && ! dictionary.contains(line.get(i + 2))) {
 				String word = token + line.get(i + 2);
-				replacement = process(i, word);
+				replacement = process(word);
 				// kein Erfolg?
-				if (replacement.equals(word) && ! ciDict.contains(replacement)) {
+				if (replacement.equals(word) && ! dictionary.contains(replacement)) {
 					replacement = token;
 				} else {
 					// bei Erfolg die nachfolgenden Token löschen
@@ -165,13 +208,13 @@ public class LineProcessor implements Callable<LineProcessor.Result> {
 
 			if (replacement.equals(token)) {
 				// nichts gefunden?
-				if (! ciDict.contains(token)) {
+				if (! dictionary.contains(token)) {
 					// ggf. zusammengeschriebene Wörter wieder trennen
 					// jedes Teil-Wort muss mindestens zwei Zeichen haben
 					for (int j = 1; j < token.length() -1; j++) {
 						String prefix = token.substring(0, j);
 						String suffix = token.substring(j);
-						if (ciDict.contains(prefix) && ciDict.contains(suffix)
+						if (dictionary.contains(prefix) && dictionary.contains(suffix)
 								// keine einzelnen Silben abtrennen
 								&& ! silben.contains(prefix) && ! silben.contains(suffix)) {
 							result.changed();
@@ -196,22 +239,32 @@ public class LineProcessor implements Callable<LineProcessor.Result> {
 		return result;
 	}
 
+	/** Satzzeichen, das in einem Wort entfernt wird */
+	private static boolean isPunctuationInWord(String token) {
+		return token.length() == 1 && ".,»«\"".indexOf(token.charAt(0)) >= 0;
+	}
+
+	/** Satzzeichen, die in einem Wort durch Buchstaben ersetzt werden */
+	private static boolean isPunctuationToReplace(String token) {
+		return ! token.isEmpty() && TextUtils.consistsOf(token, ";:!()[]{}»«„“”\"*_");
+	}
+
 	private String ausrufezeichenErsetzen(String token, int index) {
-		if (ciDict.contains(token) || index + 1 >= line.size()) {
+		if (dictionary.contains(token) || index + 1 >= line.size()) {
 			return token;
 		}
 		
 		String nextToken = line.get(index + 1);
 		// alle Wörter ermitteln, die mit dem Token beginnen
-		SortedSet<String> subset = treeView.subSet(token, token + "z");
+		SortedSet<String> subset = dictionary.treeView().subSet(token, token + "z");
 		for (String candidate : subset) {
 			String remainder = candidate.substring(token.length());
 			// besteht der Rest nur aus Buchstaben, die einem Ausrufezeichen ähneln?
-			if (remainder.matches("[tli]+")) {
+			if (! remainder.isEmpty() && TextUtils.consistsOf(remainder, "tli")) {
 				// wird das Token von ebenso vielen Ausrufezeichen gefolgt?
 				int length = remainder.length();
 				if (nextToken.length() >= length
-						&& nextToken.substring(0, length).matches("[!]*")) {
+						&& TextUtils.consistsOf(nextToken.substring(0, length), "!")) {
 					// die Ausrufezeichen entfernen
 					nextToken = nextToken.substring(length);
 					line.set(index + 1, nextToken);
@@ -243,12 +296,21 @@ public class LineProcessor implements Callable<LineProcessor.Result> {
 		return result;
 	}
 
-	private String process(int index, String token) {
+	private String process(String token) {
+		// bekannte Wörter werden nicht im Cache abgelegt
+		if (cache == null || dictionary.contains(token)) {
+			return correct(token);
+		}
+
+		return cache.get(token, params.getLevel(), this::correct);
+	}
+
+	private String correct(String token) {
 		String result = token;
 		// ggf. Bindestriche entfernen, außer am Wortende
 		String word = TextUtils.removeDashes(token);
 		// im Wörterbuch vorhanden?
-		if (ciDict.contains(token)) {
+		if (dictionary.contains(token)) {
 			// nichts zu tun
 		}
 		// Korrektur vorhanden?
@@ -268,27 +330,27 @@ public class LineProcessor implements Callable<LineProcessor.Result> {
 			result = map.get(word);
 		}
 		// Wort ohne Bindestriche im Wörterbuch?
-		else if (ciDict.contains(word)) {
+		else if (dictionary.contains(word)) {
 			result = word;
 		}
 		// endet das Wort auf i, l, t, 1 und ist der Rest im Wörterbuch?
 		else if ((word.endsWith("i") || word.endsWith("l") || word.endsWith("t") || word.endsWith("1"))
-				&& ciDict.contains(word.substring(0, word.length() - 1))) {
+				&& dictionary.contains(word.substring(0, word.length() - 1))) {
 			// dann das letzte Zeichen durch ein Ausrufezeichen ersetzen
 			result = word.substring(0, word.length() - 1) + "!";
 		}
 		// ist das Wort fälschlicherweise klein geschrieben?
 		else if (Character.isLowerCase(word.charAt(0))
-				&& ciDict.contains(TextUtils.toUpperCase(word))) {
+				&& dictionary.contains(TextUtils.toUpperCase(word))) {
 			// nicht, wenn das Wort mit Bindestrich beginnt
 			if (! token.startsWith("-")) {
 				result = TextUtils.toUpperCase(word);
 			}
 		}
 		// oder passt die Groß-/Kleinschreibung nicht (z.B. "eS")?
-		else if (! ciDict.contains(word) && ciDict.contains(word.toLowerCase())) {
+		else if (! dictionary.contains(word) && dictionary.contains(word.toLowerCase())) {
 			result = word.toLowerCase();
-		} else if (! ciDict.contains(word) && ciDict.contains(TextUtils.toUpperCase(word.toLowerCase()))) {
+		} else if (! dictionary.contains(word) && dictionary.contains(TextUtils.toUpperCase(word.toLowerCase()))) {
 			result = TextUtils.toUpperCase(word.toLowerCase());
 		}
 		// Zwei Großbuchstaben am Wortbeginn?
@@ -297,10 +359,10 @@ public class LineProcessor implements Callable<LineProcessor.Result> {
 				&& Character.isUpperCase(word.charAt(1))) {
 			// jeweils eines der Zeichen löschen und damit versuchen
 			Set<String> candidates = new HashSet<>();
-			addIfModified(index, word.charAt(0) + word.substring(2).toLowerCase(), candidates);
-			addIfModified(index, word.charAt(1) + word.substring(2).toLowerCase(), candidates);
+			addIfModified(word.charAt(0) + word.substring(2).toLowerCase(), candidates);
+			addIfModified(word.charAt(1) + word.substring(2).toLowerCase(), candidates);
 			// zusätzlich mit dem zweiten Buchstaben in klein
-			addIfModified(index, word.charAt(0) + word.substring(1).toLowerCase(), candidates);
+			addIfModified(word.charAt(0) + word.substring(1).toLowerCase(), candidates);
 			String candidate = bestMatch(token, candidates);
 			if (! candidate.equals(word)) {
 				result = candidate;
@@ -308,7 +370,7 @@ public class LineProcessor implements Callable<LineProcessor.Result> {
 		} else if (word.length() > 1) {
 			// gängige Vertauschungen durchführen
 			int level = Math.min(params.getLevel(), word.length() - 1);
-			String candidate = replaceCharacters(token, level);
+			String candidate = params.getGenerator().correct(this, token, level);
 			if (! candidate.equals(word)) {
 				result = candidate;
 			}
@@ -317,23 +379,125 @@ public class LineProcessor implements Callable<LineProcessor.Result> {
 		return result;
 	}
 
-	private void addIfModified(int index, String word, Set<String> candidates) {
-		String candidate = process(index, word);
+	private void addIfModified(String word, Set<String> candidates) {
+		String candidate = process(word);
 		if (! word.equals(candidate)) {
 			candidates.add(candidate);
 		}
 	}
 
-	/** Ersetzt vertauschte s/f, v/r/o, etc. */
+	/**
+	 * Ersetzt vertauschte s/f, v/r/o, etc. Die Kandidaten werden schon während der Suche bewertet, Teilbäume
+	 * ohne Aussicht auf einen besseren Kandidaten werden übersprungen.
+	 */
 	public String replaceCharacters(String input, int threshold) {
+		return replaceCharacters(input, threshold, true);
+	}
+
+	/** Wie {@link #replaceCharacters(String, int)}, es werden aber alle Kandidaten erzeugt und bewertet */
+	String replaceCharactersExhaustive(String input, int threshold) {
+		return replaceCharacters(input, threshold, false);
+	}
+
+	private String replaceCharacters(String input, int threshold, boolean prune) {
 		// an allen Positionen die Zeichen vertauschen und prüfen, ob sie im Wörterbuch enthalten sind
 		// der Anfangsbuchstabe wird sowohl in Groß- als auch in Kleinschreibweise gesucht
 		String[] variants = caseVariants(input);
+		Ranking ranking = new Ranking(input, prune);
+		DictionaryTrie trie = dictionary.trie();
+		int newThreshold = replaceCharacters(variants[0], trie, DictionaryTrie.ROOT, ranking, 0, threshold) - 1;
+		replaceCharacters(variants[1], trie, DictionaryTrie.ROOT, ranking, 0, newThreshold);
+		String result = ranking.result();
+		return result == null ? input : matchCase(input, result);
+	}
+
+	/**
+	 * Sucht im SymSpell-Index nach Wörtern mit höchstens {@link SymSpellIndex#MAX_DISTANCE} Abweichungen. Im
+	 * Gegensatz zu {@link #replaceCharacters(String, int)} werden beliebige Zeichen eingefügt, gelöscht oder
+	 * ersetzt, die Kosten hängen dabei nicht von der Anzahl der Abweichungen ab.
+	 */
+	public String symSpell(String input, int maxDistance) {
+		String[] variants = caseVariants(input);
+		List<String> found = new ArrayList<>();
+		SymSpellIndex index = dictionary.symSpell();
+		index.candidates(variants[0], maxDistance, found);
+		index.candidates(variants[1], maxDistance, found);
+		// wie bei replaceCharacters zuerst die Kandidaten in der Schreibweise des Originals
+		Set<String> candidates = new LinkedHashSet<>();
+		boolean upperCase = Character.isUpperCase(variants[0].charAt(0));
+		for (String candidate : found) {
+			if (Character.isUpperCase(candidate.charAt(0)) == upperCase) {
+				candidates.add(candidate);
+			}
+		}
+		candidates.addAll(found);
+
+		return bestCandidate(input, candidates);
+	}
+
+	/**
+	 * Sucht im Skelett-Index nach Wörtern, die sich nur durch typische Vertauschungen unterscheiden. Wird dort
+	 * kein Wort mit höchstens <code>threshold</code> Abweichungen gefunden, wird wie bisher mit
+	 * {@link #replaceCharacters(String, int)} gesucht.
+	 */
+	public String skeleton(String input, int threshold) {
+		String[] variants = caseVariants(input);
+		List<String> found = new ArrayList<>();
+		SkeletonIndex index = dictionary.skeleton();
+		index.candidates(variants[0], found);
+		index.candidates(variants[1], found);
 		Set<String> candidates = new LinkedHashSet<>();
-		int newThreshold = replaceCharacters(variants[0], treeView, candidates, 0, threshold) - 1;
-		replaceCharacters(variants[1], treeView, candidates, 0, newThreshold);
+		for (String candidate : found) {
+			if (LevenshteinDistance.compare(input, candidate, threshold) >= 0) {
+				candidates.add(candidate);
+			}
+		}
+		if (candidates.isEmpty()) {
+			return replaceCharacters(input, threshold);
+		}
+
+		return bestCandidate(input, candidates);
+	}
+
+	/**
+	 * Sucht mit einem gewichteten Levenshtein-Automaten in einem Durchgang über den Trie nach dem besten Wort.
+	 * Vertauschungen aus <code>similar_chars.cfg</code> kosten dabei die Hälfte einer beliebigen Änderung,
+	 * erlaubt sind <code>threshold</code> Vertauschungen bzw. halb so viele beliebige Änderungen.
+	 */
+	public String automaton(String input, int threshold) {
+		LevenshteinAutomaton automaton = new LevenshteinAutomaton(input);
+		for (int start = 0; start < input.length(); start++) {
+			String tail = input.substring(start);
+			String currCh = tail.substring(0, 1);
+			// unbekanntes Zeichen?
+			if (! KNOWN_CHARS.contains(currCh)) {
+				for (String replacement : REPLACEMENTS) {
+					automaton.similar(start, 1, replacement);
+				}
+			} else {
+				for (Entry<String, List<String>> entry : SIMILAR_CHARS.subMap(currCh, true, tail, true).entrySet()) {
+					if (tail.startsWith(entry.getKey())) {
+						for (String replacement : entry.getValue()) {
+							automaton.similar(start, entry.getKey().length(), replacement);
+						}
+					}
+				}
+			}
+		}
+
+		String result = automaton.search(dictionary.trie(), threshold * LevenshteinAutomaton.SIMILAR_COST);
+
+		return result == null ? input : matchCase(input, result);
+	}
+
+	private String bestCandidate(String input, Set<String> candidates) {
 		// den Kandidaten mit den wenigsten Unterschieden zum Original heraussuchen
 		String result = bestMatch(input, candidates);
+
+		return matchCase(input, result);
+	}
+
+	private static String matchCase(String input, String result) {
 		// war das übergebene Wort groß geschrieben, muss auch das Ergebnis groß sein
 		if (Character.isUpperCase(input.charAt(0))
 				&& ! Character.isUpperCase(result.charAt(0))) {
@@ -429,28 +593,38 @@ public class LineProcessor implements Callable<LineProcessor.Result> {
 			sc.put(entries[0], new ArrayList<>(values));
 		}
 	}
-	private static int replaceCharacters(String input, SortedSet<String> dict, Collection<String> result, int start, int threshold) {
+	/**
+	 * Sucht rekursiv nach Kandidaten. Der Knoten im Trie entspricht dabei dem bereits bearbeiteten Anfang
+	 * des Worts (input[0, start)), -1 bedeutet, dass es kein Wort mit diesem Anfang gibt.
+	 */
+	private static int replaceCharacters(String input, DictionaryTrie trie, int node, Ranking result, int start, int threshold) {
 		// sind wir schon am Ende angelangt?
 		if (start == input.length()) {
 			return threshold;
 		}
 
 		int newThreshold = threshold;
-		// zuerst mit dem unveränderten Zeichen weitersuchen
-		String head = input.substring(0, start);
-		// mit dem Teil des Dictionary weiterarbeiten, dass mit dem Prefix anfängt
-		SortedSet<String> subSet = dict.subSet(head, head + "\uffff");
-		if (hasPrefix(subSet, head)) {
-			newThreshold = replaceCharacters(input, subSet, result, start + 1, newThreshold);
+		// gibt es Wörter, die mit dem bisherigen Anfang beginnen?
+		if (node >= 0) {
+			// zuerst mit dem unveränderten Zeichen weitersuchen
+			char ch = input.charAt(start);
+			int child = trie.child(node, ch);
+			if (child >= 0) {
+				result.row(start + 1, ch);
+				if (result.promising(trie, child, start + 1)) {
+					newThreshold = replaceCharacters(input, trie, child, result, start + 1, newThreshold);
+				}
+			}
 
 			// dann mit allen möglichen Ersetzungen
+			String head = input.substring(0, start);
 			String tail = input.substring(start);
 			String currCh = tail.substring(0, 1);
 			// unbekanntes Zeichen?
 			if (! KNOWN_CHARS.contains(currCh)) {
 				// durch allgemeine Zeichen ersetzen
 				String suffix = tail.substring(1);
-				newThreshold = replaceCharacters(result, start, newThreshold, head, subSet, REPLACEMENTS, suffix);
+				newThreshold = replaceCharacters(result, start, newThreshold, head, trie, node, REPLACEMENTS, suffix);
 			} else {
 				Map<String, List<String>> map = SIMILAR_CHARS.subMap(currCh, true, tail, true);
 				for (Entry<String, List<String>> entry : map.entrySet()) {
@@ -458,7 +632,7 @@ public class LineProcessor implements Callable<LineProcessor.Result> {
 					if (tail.startsWith(chars)) {
 						String suffix = tail.substring(chars.length());
 						// durch alle anderen Zeichen ersetzen
-						newThreshold = replaceCharacters(result, start, newThreshold, head, subSet, entry.getValue(), suffix);
+						newThreshold = replaceCharacters(result, start, newThreshold, head, trie, node, entry.getValue(), suffix);
 					}
 				}
 			}
@@ -467,76 +641,195 @@ public class LineProcessor implements Callable<LineProcessor.Result> {
 		return newThreshold;
 	}
 
-	private static int replaceCharacters(Collection<String> result, int start, int threshold, String head,
-			SortedSet<String> subSet, List<String> replacements, String suffix) {
+	private static int replaceCharacters(Ranking result, int start, int threshold, String head,
+			DictionaryTrie trie, int node, List<String> replacements, String suffix) {
 		int newThreshold = threshold;
 		for (String replacement : replacements) {
+			// beginnt kein Wort mit der Ersetzung, kann sie übersprungen werden
+			int next = trie.walk(node, replacement);
+			if (next < 0) {
+				continue;
+			}
+			// ist im Teilbaum kein besserer Kandidat möglich, kann er ebenfalls übersprungen werden
+			for (int i = 0; i < replacement.length(); i++) {
+				result.row(start + i + 1, replacement.charAt(i));
+			}
+			if (! result.promising(trie, next, start + replacement.length())) {
+				continue;
+			}
+
 			String candidate = head + replacement + suffix;
-			if (subSet.contains(candidate)) {
+			if (trie.isWord(trie.walk(next, suffix))) {
 				result.add(candidate);
 			}
 
 			// weitere Kandidaten erzeugen
-			if (hasPrefix(subSet, head + replacement) && newThreshold > 1) {
-				int x = replaceCharacters(candidate, subSet, result, start + replacement.length(), newThreshold - 1);
+			if (newThreshold > 1) {
+				int x = replaceCharacters(candidate, trie, next, result, start + replacement.length(), newThreshold - 1);
 				newThreshold = Math.min(x + 1, newThreshold);
 			}
 		}
 		return newThreshold;
 	}
 
-	/** gibt es im Wörterbuch einen Eintrag, der mit dem angegebenen Eintrag beginnt? */
-	private static boolean hasPrefix(SortedSet<String> dict, String prefix) {
-		SortedSet<String> subSet = dict.tailSet(prefix);
-		return ! subSet.isEmpty() && subSet.first().startsWith(prefix);
+	private String bestMatch(String input, Set<String> candidates) {
+		Ranking ranking = new Ranking(input, false);
+		for (String candidate : candidates) {
+			ranking.add(candidate);
+		}
+
+		return ranking.result() == null ? input : ranking.result();
 	}
 
-	private String bestMatch(String input, Set<String> candidates) {
-		if (candidates.isEmpty()) {
-			return input;
-		}
-
-		// es gewinnt der Kandidat, der ein besseres Verhältnis von der Häufigkeit zur
-		// Anzahl der Abweichungen hat. Dabei geht die 10er Potenz der Häufigkeit mit in die
-		// Berechnung ein, sodass ein Wort mit 100 Vorkommen zwei zusätzliche Abweichungen
-		// im Vergleich zu einem Wort mit nur einem Vorkommen haben darf
-		// Damit sehr kurze und häufige Wörter (der, die, und, ...) nicht längere Wörter
-		// überlagern, wird das Ganze auf einen Unterschied je zwei Buchstaben der Wortlänge
-		// begrenzt (bei "der", "die" etc. beispielsweise auf eins)
-		Iterator<String> it = candidates.iterator();
-		String result = it.next();
-		if (candidates.size() > 1) {
-			int distance = calculateDistance(input, result);
-			while (it.hasNext()) {
-				String candidate = it.next();
-				int distance2 = calculateDistance(input, candidate);
-				// bei Wörtern, die sich nur in der Groß-/Kleinschreibung unterscheiden,
-				// wird das Wort mit der Original-Schreibweise bevorzugt, unabhängig von der Häufigkeit
-				if (result.equalsIgnoreCase(candidate)) {
-					if (candidate.regionMatches(0, input, 0, 1)) {
-						result = candidate;
-					}
-				} else if (distance2 < distance) {
+	/**
+	 * Bewertet die Kandidaten in der Reihenfolge, in der sie gefunden werden.
+	 * <p>
+	 * Beim Abschneiden wird für den bisherigen Anfang der Kandidaten eine untere Schranke der Bewertung
+	 * mitgeführt: der kleinste Abstand des Anfangs zu einem Anfang des Originals abzüglich des Bonus für die
+	 * größte Häufigkeit im Teilbaum (siehe {@link DictionaryTrie#maxCount(int)}). Liegt die Schranke über dem
+	 * bisher besten Abstand, kann kein Wort im Teilbaum mehr gewinnen. Die Schranke vergleicht die Zeichen
+	 * ohne Berücksichtigung der Groß-/Kleinschreibung, damit sie auch für die anderen Schreibweisen gilt, die
+	 * bei der Bevorzugung der Original-Schreibweise ohne Abstand verglichen werden. So ist das Ergebnis dasselbe
+	 * wie bei der Bewertung aller Kandidaten.
+	 */
+	private class Ranking {
+		private final String input;
+		private final Set<String> seen = new HashSet<>();
+		private String result;
+		private int distance;
+		// Zeichen des Originals in einheitlicher Schreibweise, null wenn nicht abgeschnitten wird
+		private final char[] folded;
+		// Abstände des bisherigen Anfangs zu input[0, i), je Länge des Anfangs
+		private int[][] rows;
+		private int[] rowMin;
+
+		Ranking(String input, boolean prune) {
+			this.input = input;
+			if (prune) {
+				int n = input.length();
+				folded = new char[n];
+				for (int i = 0; i < n; i++) {
+					folded[i] = DictionaryTrie.foldCase(input.charAt(i));
+				}
+				rows = new int[n + 2][];
+				rowMin = new int[rows.length];
+				rows[0] = new int[n + 1];
+				for (int i = 0; i <= n; i++) {
+					rows[0][i] = i;
+				}
+			} else {
+				folded = null;
+			}
+		}
+
+		String result() {
+			return result;
+		}
+
+		void add(String candidate) {
+			// Kandidaten, die mehrfach gefunden werden, zählen nur beim ersten Mal
+			if (! seen.add(candidate)) {
+				return;
+			}
+			if (result == null) {
+				result = candidate;
+				distance = calculateDistance(input, candidate, Integer.MAX_VALUE);
+				return;
+			}
+
+			// es gewinnt der Kandidat, der ein besseres Verhältnis von der Häufigkeit zur
+			// Anzahl der Abweichungen hat. Dabei geht die 10er Potenz der Häufigkeit mit in die
+			// Berechnung ein, sodass ein Wort mit 100 Vorkommen zwei zusätzliche Abweichungen
+			// im Vergleich zu einem Wort mit nur einem Vorkommen haben darf
+			// Damit sehr kurze und häufige Wörter (der, die, und, ...) nicht längere Wörter
+			// überlagern, wird das Ganze auf einen Unterschied je zwei Buchstaben der Wortlänge
+			// begrenzt (bei "der", "die" etc. beispielsweise auf eins)
+
+			// bei Wörtern, die sich nur in der Groß-/Kleinschreibung unterscheiden,
+			// wird das Wort mit der Original-Schreibweise bevorzugt, unabhängig von der Häufigkeit
+			if (result.equalsIgnoreCase(candidate)) {
+				if (candidate.regionMatches(0, input, 0, 1)) {
+					result = candidate;
+				}
+				return;
+			}
+
+			// Kandidaten, die schlechter als der bisher beste sind, werden nicht vollständig verglichen
+			int distance2 = calculateDistance(input, candidate, distance);
+			if (distance2 == Integer.MAX_VALUE) {
+				return;
+			} else if (distance2 < distance) {
+				result = candidate;
+				distance = distance2;
+			} else if (distance2 == distance) {
+				// häufigere Wörter bevorzugen
+				int frequency1 = dictionary.getCount(result);
+				int frequency2 = dictionary.getCount(candidate);
+				if (frequency2 > frequency1) {
 					result = candidate;
-					distance = distance2;
-				} else if (distance2 == distance) {
-					// häufigere Wörter bevorzugen
-					int frequency1 = ciDict.getCount(result);
-					int frequency2 = ciDict.getCount(candidate);
-					if (frequency2 > frequency1) {
-						result = candidate;
-					}
 				}
 			}
 		}
 
-		return result;
+		/** Der bisherige Anfang der Kandidaten hat die Länge depth und endet mit ch */
+		void row(int depth, char ch) {
+			if (folded == null) {
+				return;
+			}
+			if (depth >= rows.length) {
+				rows = Arrays.copyOf(rows, rows.length * 2);
+				rowMin = Arrays.copyOf(rowMin, rows.length);
+			}
+			int[] row = rows[depth];
+			if (row == null) {
+				row = new int[folded.length + 1];
+				rows[depth] = row;
+			}
+			int[] prev = rows[depth - 1];
+			char c = DictionaryTrie.foldCase(ch);
+			row[0] = depth;
+			int min = depth;
+			for (int i = 1; i < row.length; i++) {
+				int cost = Math.min(prev[i], row[i - 1]) + 1;
+				cost = Math.min(cost, prev[i - 1] + (folded[i - 1] == c ? 0 : 1));
+				row[i] = cost;
+				min = Math.min(min, cost);
+			}
+			rowMin[depth] = min;
+		}
+
+		/** Kann ein Wort im Teilbaum des Knotens, dessen Anfang die Länge depth hat, noch gewinnen? */
+		boolean promising(DictionaryTrie trie, int node, int depth) {
+			if (folded == null || result == null) {
+				return true;
+			}
+			int bonus = (int) Math.log10(Math.max(1, trie.maxCount(node)));
+
+			return rowMin[depth] - bonus <= distance;
+		}
 	}
 
-	private int calculateDistance(String original, String candidate) {
-		int distance = LevenshteinDistance.compare(original, candidate);
-		int bonus = (int) Math.log10(ciDict.getCount(candidate));
+	/**
+	 * Abstand abzüglich des Bonus für häufige Wörter. Liegt der Abstand über <code>max</code>, wird
+	 * {@link Integer#MAX_VALUE} geliefert.
+	 */
+	private int calculateDistance(String original, String candidate, int max) {
+		int count = dictionary.getCount(candidate);
+		if (count == 0) {
+			// für Wörter, die nicht im Wörterbuch stehen, ist der Bonus log10(0) = Integer.MIN_VALUE, der
+			// Abstand läuft dadurch in den negativen Bereich über und das Wort gewinnt immer
+			return LevenshteinDistance.compare(original, candidate) + Integer.MIN_VALUE;
+		}
+		int bonus = (int) Math.log10(count);
 		bonus = Math.min(candidate.length() / 3, bonus);
+		long limit = (long) max + bonus;
+		if (limit < 0) {
+			return Integer.MAX_VALUE;
+		}
+		int distance = LevenshteinDistance.compare(original, candidate, (int) Math.min(limit, Integer.MAX_VALUE));
+		if (distance < 0) {
+			return Integer.MAX_VALUE;
+		}
 
 		return distance - bonus;
 	}
@@ -4,16 +4,26 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
 
+/**
+ * Liest eine Datei zeilenweise und hält dabei ein Fenster mit vorhergehenden und nachfolgenden Zeilen vor.
+ * Die Zeilen liegen in einem Ringpuffer, der Zugriff auf eine Zeile erfolgt daher in konstanter Zeit.
+ * Beim Einfügen und Entfernen wird jeweils nur die kürzere Seite des Puffers verschoben.
+ */
 public class LineReader {
 	/** leere Liste als Markierung für das Dateiende */
 	public static final List<String> EOF = new ArrayList<>();
 
 	private int prevContext;
 	private int nextContext;
-	private List<List<String>> lines;
+	/** Ringpuffer, die Größe ist immer eine Zweierpotenz */
+	private List<String>[] lines;
+	/** Position der ersten Zeile im Puffer */
+	private int head;
+	/** Anzahl der Zeilen im Puffer */
+	private int size;
 	private BufferedReader reader;
 
 	public LineReader(Reader in) throws IOException {
@@ -29,10 +39,12 @@ public class LineReader {
 
 	private void init() throws IOException {
 		// Puffer füllen
-		lines = new LinkedList<>();
+		lines = newLines(Integer.highestOneBit(Math.max(prevContext + nextContext + 2, 2)) * 2);
+		head = 0;
+		size = 0;
 		// eine zusätzliche Zeile, damit steht der Cursor auf EOF
 		for (int i = 0; i <= prevContext; i++) {
-			lines.add(EOF);
+			insert(size, EOF);
 		}
 		// die aktuelle plus die nachfolgenden Zeilen einlesen
 		for (int i = 0; i <= nextContext; i++) {
@@ -43,12 +55,12 @@ public class LineReader {
 	private void doReadLine() throws IOException {
 		String line = reader.readLine();
 		if (line != null) {
-			lines.add(TextUtils.split(line));
+			insert(size, TextUtils.split(line));
 		}
 	}
 
 	public boolean readLine() throws IOException {
-		lines.remove(0);
+		remove(0);
 		doReadLine();
 
 		return hasNext(0);
@@ -72,11 +84,11 @@ public class LineReader {
 
 	public List<String> next(int count) {
 		int index = count + prevContext;
-		if (index >= lines.size()) {
+		if (index >= size) {
 			return EOF;
 		}
 
-		return lines.get(index);
+		return get(index);
 	}
 
 	public boolean hasNext() {
@@ -84,23 +96,91 @@ public class LineReader {
 	}
 
 	public boolean hasNext(int count) {
-		return lines.size() > prevContext + count;
+		return size > prevContext + count;
 	}
 
 	public void add(List<String> line) {
-		lines.add(1 + prevContext, line);
+		insert(1 + prevContext, line);
 	}
 
 	public void swap(int index1, int index2) {
 		int i1 = index1 + prevContext;
 		int i2 = index2 + prevContext;
-		List<String> tmp = lines.get(i1);
-		lines.set(i1, lines.get(i2));
-		lines.set(i2, tmp);
+		List<String> tmp = get(i1);
+		set(i1, get(i2));
+		set(i2, tmp);
 	}
 
 	public void skip(int i) throws IOException {
-		lines.remove(i + prevContext);
+		remove(i + prevContext);
 		doReadLine();
 	}
+
+	private int slot(int index) {
+		return (head + index) & (lines.length - 1);
+	}
+
+	private List<String> get(int index) {
+		Objects.checkIndex(index, size);
+		return lines[slot(index)];
+	}
+
+	private void set(int index, List<String> line) {
+		Objects.checkIndex(index, size);
+		lines[slot(index)] = line;
+	}
+
+	private void insert(int index, List<String> line) {
+		Objects.checkIndex(index, size + 1);
+		if (size == lines.length) {
+			grow();
+		}
+		if (index < size - index) {
+			// vorderen Teil nach vorne verschieben
+			head = slot(-1);
+			for (int i = 0; i < index; i++) {
+				lines[slot(i)] = lines[slot(i + 1)];
+			}
+		} else {
+			// hinteren Teil nach hinten verschieben
+			for (int i = size; i > index; i--) {
+				lines[slot(i)] = lines[slot(i - 1)];
+			}
+		}
+		lines[slot(index)] = line;
+		size++;
+	}
+
+	private void remove(int index) {
+		Objects.checkIndex(index, size);
+		if (index < size - 1 - index) {
+			// vorderen Teil nach hinten verschieben
+			for (int i = index; i > 0; i--) {
+				lines[slot(i)] = lines[slot(i - 1)];
+			}
+			lines[head] = null;
+			head = slot(1);
+		} else {
+			// hinteren Teil nach vorne verschieben
+			for (int i = index; i < size - 1; i++) {
+				lines[slot(i)] = lines[slot(i + 1)];
+			}
+			lines[slot(size - 1)] = null;
+		}
+		size--;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static List<String>[] newLines(int length) {
+		return new List[length];
+	}
+
+	private void grow() {
+		List<String>[] newLines = newLines(lines.length * 2);
+		for (int i = 0; i < size; i++) {
+			newLines[i] = lines[slot(i)];
+		}
+		lines = newLines;
+		head = 0;
+	}
 }
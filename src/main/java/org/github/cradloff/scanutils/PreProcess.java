@@ -6,17 +6,21 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.Reader;
+import java.io.StringWriter;
 import java.io.Writer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.SortedSet;
-import java.util.TreeSet;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -24,8 +28,6 @@ import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 
 import org.apache.commons.collections4.Bag;
-import org.apache.commons.collections4.SortedBag;
-import org.apache.commons.collections4.bag.TreeBag;
 import org.github.cradloff.scanutils.LineProcessor.Result;
 
 /**
@@ -38,12 +40,35 @@ import org.github.cradloff.scanutils.LineProcessor.Result;
 public class PreProcess {
 	static class Parameter {
 		private int level = 6;
+		private int chunkSize = 1_000;
+		private int threads = Runtime.getRuntime().availableProcessors();
+		private boolean persistentCache = false;
+		private String engine = LineProcessor.ENGINE_DEFAULT;
+		/** Vergleich zweier Verfahren, null wenn nicht verglichen wird */
+		private ComparingCandidateGenerator comparison;
 		private List<File> inputs = new ArrayList<>();
 
 		public static Parameter parse(String[] args) {
 			Parameter param = new Parameter();
-			for (String arg : args) {
-				if (arg.startsWith("-")) {
+			for (int i = 0; i < args.length; i++) {
+				String arg = args[i];
+				if (arg.equals("-j")) {
+					param.threads = parseThreads(i + 1 < args.length ? args[++i] : null);
+				} else if (arg.equals("-cache")) {
+					param.persistentCache = true;
+				} else if (arg.startsWith("-chunk=")) {
+					param.chunkSize = Integer.parseInt(arg.substring(7));
+				} else if (arg.startsWith("-engine=")) {
+					param.engine = arg.substring(8);
+					// prüfen, ob es das Verfahren gibt
+					CandidateGenerators.get(param.engine);
+				} else if (arg.startsWith("-compare=")) {
+					String[] engines = arg.substring(9).split(",");
+					if (engines.length != 2) {
+						throw new IllegalArgumentException("Für den Vergleich werden zwei Verfahren benötigt: " + arg);
+					}
+					param.comparison = new ComparingCandidateGenerator(CandidateGenerators.get(engines[0]), CandidateGenerators.get(engines[1]));
+				} else if (arg.startsWith("-")) {
 					param.level = Integer.parseInt(arg.substring(1));
 				} else {
 					File input = FileAccess.checkExists(arg);
@@ -56,15 +81,60 @@ public class PreProcess {
 			return param;
 		}
 
+		private static int parseThreads(String value) {
+			if (value == null) {
+				throw new IllegalArgumentException("Die Anzahl Threads fehlt, Aufruf: -j <Anzahl>");
+			}
+			try {
+				return Math.max(1, Integer.parseInt(value));
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Ungültige Anzahl Threads: " + value + ", Aufruf: -j <Anzahl>", e);
+			}
+		}
+
 		public int getLevel() {
 			return level;
 		}
 
+		/** Anzahl Token, die in einem Arbeitsschritt verarbeitet werden */
+		public int getChunkSize() {
+			return chunkSize;
+		}
+
+		/** Anzahl Threads, die für die Verarbeitung verwendet werden */
+		public int getThreads() {
+			return threads;
+		}
+
+		/** Name des Verfahrens für die Suche nach Kandidaten, siehe {@link CandidateGenerators#names()} */
+		public String getEngine() {
+			return engine;
+		}
+
+		/** Verfahren für die Suche nach Kandidaten, beim Vergleich zweier Verfahren der Vergleich */
+		public CandidateGenerator getGenerator() {
+			return comparison != null ? comparison : CandidateGenerators.get(engine);
+		}
+
+		/** Vergleich zweier Verfahren, null wenn nicht verglichen wird */
+		ComparingCandidateGenerator getComparison() {
+			return comparison;
+		}
+
+		/** Sollen die Korrekturen in einer Datei für spätere Läufe gespeichert werden? */
+		public boolean isPersistentCache() {
+			return persistentCache;
+		}
+
 		public List<File> getInputs() {
 			return inputs;
 		}
 	}
 
+	/** Anzahl Zeilen je Thread, die vorab vorverarbeitet werden */
+	private static final int LOOKAHEAD_PER_THREAD = 4;
+	/** Anzahl Arbeitspakete je Thread, die sich maximal gleichzeitig in Arbeit befinden */
+	private static final int CHUNKS_PER_THREAD = 4;
 	/** Zeile mit einem Pagebreak */
 	private static final List<String> PAGEBREAK = TextUtils.split("<@pagebreak/>");
 	private static final Pattern[] PATTERN_UEBERSCHRIFT = {
@@ -73,9 +143,23 @@ public class PreProcess {
 			Pattern.compile(">"),
 	};
 	private Parameter params;
+	/** gemeinsame Thread-Pools für alle Dateien, ohne Pools werden sie pro Aufruf angelegt */
+	private ExecutorService executor;
+	private ExecutorService prepareExecutor;
+	/** Cache für bereits korrigierte Wörter */
+	private CorrectionCache cache;
+	/** Anzahl der Arbeitspakete der letzten Verarbeitung */
+	private int chunks;
 
 	public PreProcess(Parameter params) {
+		this(params, null, null, new CorrectionCache());
+	}
+
+	public PreProcess(Parameter params, ExecutorService executor, ExecutorService prepareExecutor, CorrectionCache cache) {
 		this.params = params;
+		this.executor = executor;
+		this.prepareExecutor = prepareExecutor;
+		this.cache = cache;
 	}
 
 	public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
@@ -96,48 +180,131 @@ public class PreProcess {
 		// Wörterbuch einlesen
 		Bag<String> dict = FileAccess.readDict(basedir, "german.dic");
 		Bag<String> silben = FileAccess.readDict(basedir, "silben.dic");
+		// der Index wird einmal für alle Dateien aufgebaut
+		DictionaryIndex index = new DictionaryIndex(dict);
 
-		// alle Dateien verarbeiten
-		File logfile = new File(basedir, "changes.log");
-		try (PrintWriter log = new PrintWriter(logfile)) {
-			for (File input : params.getInputs()) {
-				preProcess(input, params, log, map, dict, silben);
+		/*
+		 * Alle Dateien teilen sich einen Pool für die Arbeitspakete und einen für die Vorverarbeitung. Die Dateien
+		 * selbst werden, die größten zuerst, von mehreren Threads gleichzeitig eingelesen und geschrieben.
+		 */
+		List<File> inputs = params.getInputs();
+		int threads = params.getThreads();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		ExecutorService prepareExecutor = Executors.newFixedThreadPool(threads);
+		ExecutorService fileExecutor = Executors.newFixedThreadPool(Math.min(inputs.size(), threads));
+		// die Korrekturen werden über alle Dateien hinweg gemerkt
+		CorrectionCache cache = new CorrectionCache();
+		CorrectionCacheFile cacheFile = null;
+		try {
+			// ggf. auch über mehrere Läufe, beim Vergleich müssen aber alle Wörter gesucht werden
+			if (params.isPersistentCache() && params.getComparison() != null) {
+				System.out.println("beim Vergleich wird kein Cache verwendet");
+			} else if (params.isPersistentCache()) {
+				File dictFile = FileAccess.find(basedir, "german.dic");
+				File file = new File(dictFile == null ? basedir : dictFile.getParentFile(), CorrectionCacheFile.FILENAME);
+				String fingerprint = CorrectionCacheFile.fingerprint(dict, map, silben, params.getLevel(), params.getEngine());
+				cacheFile = CorrectionCacheFile.open(file, fingerprint, cache, params.getLevel());
+				System.out.printf("verwende Cache %s (%,d Einträge)%n", file.getPath(), cacheFile.loaded());
+			}
+
+			Integer[] order = new Integer[inputs.size()];
+			Arrays.setAll(order, i -> i);
+			Arrays.sort(order, Comparator.comparingLong((Integer i) -> inputs.get(i).length()).reversed());
+			List<Future<FileResult>> results = new ArrayList<>(Collections.nCopies(inputs.size(), null));
+			for (int i : order) {
+				File input = inputs.get(i);
+				results.set(i, fileExecutor.submit(() -> preProcess(input, params, map, index, silben, executor, prepareExecutor, cache)));
+			}
+
+			// Protokoll und Ausgaben in der Reihenfolge der Kommandozeile schreiben
+			File logfile = new File(basedir, "changes.log");
+			try (PrintWriter log = new PrintWriter(logfile)) {
+				for (Future<FileResult> future : results) {
+					FileResult result = future.get();
+					System.out.print(result.output);
+					log.print(result.log);
+				}
 			}
+			System.out.printf("Cache: %,d Treffer, %,d Suchen, Trefferquote: %.1f%%%n", cache.hits(), cache.misses(), cache.hitRate());
+
+			// Abweichungen beim Vergleich zweier Verfahren protokollieren
+			ComparingCandidateGenerator comparison = params.getComparison();
+			if (comparison != null) {
+				try (PrintWriter compareLog = new PrintWriter(new File(basedir, "compare.log"))) {
+					comparison.write(compareLog);
+				}
+				System.out.print(comparison.summary());
+			}
+		} finally {
+			if (cacheFile != null) {
+				cacheFile.close();
+			}
+			fileExecutor.shutdown();
+			executor.shutdown();
+			prepareExecutor.shutdown();
+		}
+	}
+
+	/** Konsolen-Ausgabe und Protokoll einer Datei */
+	private static class FileResult {
+		private final String output;
+		private final String log;
+
+		FileResult(String output, String log) {
+			this.output = output;
+			this.log = log;
 		}
 	}
 
-	private static void preProcess(File input, Parameter params, PrintWriter log, Map<String, String> map, Bag<String> dict, Bag<String> silben)
+	private static FileResult preProcess(File input, Parameter params, Map<String, String> map, DictionaryIndex index, Bag<String> silben,
+			ExecutorService executor, ExecutorService prepareExecutor, CorrectionCache cache)
 			throws IOException, InterruptedException, ExecutionException {
 		long start = System.currentTimeMillis();
-		System.out.println("Verarbeite Datei " + input.getPath());
+		StringWriter output = new StringWriter();
+		PrintWriter console = new PrintWriter(output);
+		console.println("Verarbeite Datei " + input.getPath());
 
 		// Datei umbenennen
 		File backup = FileAccess.roll(input);
+		// das Protokoll wird pro Datei gesammelt, damit die Einträge zusammen bleiben
+		StringWriter log = new StringWriter();
 		try (Reader in = new FileReader(backup);
 				Writer out = new FileWriter(input);
 				) {
-			int count = new PreProcess(params).preProcess(in, out, log, map, dict, silben);
+			PreProcess preProcess = new PreProcess(params, executor, prepareExecutor, cache);
+			int count = preProcess.preProcess(in, out, new PrintWriter(log), map, index, silben);
 
-			System.out.printf("Anzahl ersetzter Wörter: %,d, Zeit: %,dms%n",
-					count, (System.currentTimeMillis() - start));
+			console.printf("Anzahl ersetzter Wörter: %,d, Zeit: %,dms, Arbeitspakete: %,d à %,d Token%n",
+					count, (System.currentTimeMillis() - start), preProcess.chunks, params.getChunkSize());
 		}
+
+		return new FileResult(output.toString(), log.toString());
 	}
 
-	public int preProcess(Reader in, Writer out, PrintWriter log, Map<String, String> map, Bag<String> dict, Bag<String> silben) throws IOException, InterruptedException, ExecutionException {
-		// klein geschriebene Wörter auch in Groß-Schreibweise hinzufügen
-		SortedBag<String> ciDict = new TreeBag<>(TextUtils.addUpperCase(dict));
-		SortedSet<String> invDict = TextUtils.inverse(dict);
-		SortedSet<String> treeView = new TreeSet<>(ciDict.uniqueSet());
-		LineReader reader = new LineReader(in, 1, 2);
+	public int preProcess(Reader in, Writer out, PrintWriter log, Map<String, String> map, DictionaryIndex index, Bag<String> silben) throws IOException, InterruptedException, ExecutionException {
+		Bag<String> ciDict = index.ciDict();
+		int threads = params.getThreads();
+		int lookahead = threads * LOOKAHEAD_PER_THREAD;
+		LineReader reader = new LineReader(in, 1, lookahead);
 		int count = 0;
-		// Pro Prozessor ein Thread
-		int cpus = Runtime.getRuntime().availableProcessors();
-		ExecutorService executor = Executors.newFixedThreadPool(cpus);
-		List<Future<Result>> results = new ArrayList<>();
+		// ohne gemeinsame Pools werden sie nur für diesen Aufruf angelegt
+		boolean ownPools = this.executor == null;
+		ExecutorService executor = ownPools ? Executors.newFixedThreadPool(threads) : this.executor;
+		// die zeilenweise Vorverarbeitung der nachfolgenden Zeilen läuft parallel in einem eigenen Pool
+		ExecutorService prepareExecutor = ownPools ? Executors.newFixedThreadPool(threads) : this.prepareExecutor;
+		Map<List<String>, Future<Prepared>> prepared = new IdentityHashMap<>();
+		// Arbeitspakete, die noch nicht ausgegeben wurden, in der Reihenfolge der Eingabe
+		Deque<Future<List<Result>>> results = new ArrayDeque<>();
+		int maxInFlight = threads * CHUNKS_PER_THREAD;
+		PrintWriter writer = new PrintWriter(out);
+		LineProcessor.Chunk chunk = new LineProcessor.Chunk(params, map, index, silben, cache);
+		chunks = 0;
 		while (reader.readLine()) {
 			/*
-			 * Die Zeilen werden zunächst vorverarbeitet
+			 * Die Zeilen werden zunächst vorverarbeitet. Alles, was nur die Zeile selbst betrifft, wird
+			 * für die nachfolgenden Zeilen vorab parallel erledigt
 			 */
+			prepareAhead(reader, lookahead, prepared, prepareExecutor, ciDict);
 			List<String> line = reader.current();
 
 			// ggf. Pagebreak nach unten verschieben
@@ -152,46 +319,137 @@ public class PreProcess {
 				}
 			}
 
+			// die Vorverarbeitung wird immer entfernt, auch wenn die Zeile inzwischen leer ist
+			Future<Prepared> future = prepared.remove(line);
+
 			// Leerzeilen überspringen
 			if (line.isEmpty()) {
-				results.add(LineProcessor.EMPTY_LINE);
+				chunk.add(line);
 			} else {
-				count += satzzeichenErsetzen(line, ciDict);
-				count += replaceSpecial(line);
-				// Brüche ersetzen
-				count += replaceFraction(line);
-				// Leerzeichen entfernen/einfügen
-				count += checkWhitespace(line);
-				// Worttrennung am Zeilenende zusammenfassen
+				// Ergebnis der Vorverarbeitung übernehmen, sofern die Zeile seitdem nicht verändert wurde
+				Prepared result = future == null ? null : future.get();
+				if (result != null && result.original.equals(line)) {
+					line.clear();
+					line.addAll(result.line);
+					count += result.count;
+				} else {
+					count += prepareLine(line, ciDict);
+				}
+				// Worttrennung am Zeilenende zusammenfassen, das betrifft auch die Folgezeile
 				if (mergeLinebreak(reader, ciDict)) {
 					// ist die Folge-Zeile jetzt leer?
 					if (reader.next().isEmpty()) {
 						// Zeile überspringen
+						prepared.remove(reader.next());
 						reader.skip(1);
 					}
 				}
 
-				/*
-				 * dann mit mehreren Threads verarbeitet
-				 */
-				results.add(executor.submit(new LineProcessor(params, line, map, ciDict, invDict, treeView, silben)));
+				chunk.add(line);
+			}
+
+			/*
+			 * dann absatzweise bzw. in Paketen von ca. chunkSize Token mit mehreren Threads verarbeitet
+			 */
+			if (chunk.isFull(line.isEmpty())) {
+				results.add(executor.submit(chunk));
+				chunk = new LineProcessor.Chunk(params, map, index, silben, cache);
+				chunks++;
 			}
+
+			/*
+			 * fertige Zeilen ausgeben, sind zu viele Pakete in Arbeit, wird gewartet
+			 */
+			count += writeResults(results, writer, log, maxInFlight);
+		}
+		if (! chunk.isEmpty()) {
+			results.add(executor.submit(chunk));
+			chunks++;
 		}
 
 		/*
-		 * Jetzt die Zeilen ausgeben
+		 * Jetzt die restlichen Zeilen ausgeben
 		 */
-		PrintWriter writer = new PrintWriter(out);
-		for (Future<Result> future : results) {
-			Result result = future.get();
+		count += writeResults(results, writer, log, 0);
+		writer.flush();
+		log.flush();
+		if (ownPools) {
+			executor.shutdown();
+			prepareExecutor.shutdown();
+		}
 
-			count += result.count();
-			writer.println(result.line());
-			for (String entry : result.log()) {
-				log.println(entry);
+		return count;
+	}
+
+	/** Ergebnis der zeilenweisen Vorverarbeitung */
+	private static class Prepared {
+		/** die Zeile vor der Verarbeitung */
+		private final List<String> original;
+		private final List<String> line;
+		private final int count;
+
+		Prepared(List<String> original, List<String> line, int count) {
+			this.original = original;
+			this.line = line;
+			this.count = count;
+		}
+	}
+
+	/**
+	 * Startet die Vorverarbeitung für die neu eingelesenen Zeilen. Die Zeilen werden dabei kopiert, da sie bis
+	 * zu ihrer Verarbeitung noch durch das Zusammenfassen von Worttrennungen verändert werden können.
+	 */
+	private static void prepareAhead(LineReader reader, int lookahead, Map<List<String>, Future<Prepared>> prepared,
+			ExecutorService executor, Bag<String> ciDict) {
+		// die Zeilen werden der Reihe nach eingelesen, daher reicht es, vom Ende her zu suchen
+		int first = lookahead;
+		while (first > 0 && (reader.next(first).isEmpty() || ! prepared.containsKey(reader.next(first)))) {
+			first--;
+		}
+		for (int i = first + 1; i <= lookahead; i++) {
+			List<String> line = reader.next(i);
+			if (! line.isEmpty()) {
+				List<String> original = new ArrayList<>(line);
+				prepared.put(line, executor.submit(() -> {
+					List<String> copy = new ArrayList<>(original);
+					int count = prepareLine(copy, ciDict);
+					return new Prepared(original, copy, count);
+				}));
+			}
+		}
+	}
+
+	/** Führt alle Ersetzungen durch, die nur die Zeile selbst betreffen */
+	static int prepareLine(List<String> line, Bag<String> ciDict) {
+		int count = 0;
+		count += satzzeichenErsetzen(line, ciDict);
+		count += replaceSpecial(line);
+		// Brüche ersetzen
+		count += replaceFraction(line);
+		// Leerzeichen entfernen/einfügen
+		count += checkWhitespace(line);
+
+		return count;
+	}
+
+	/**
+	 * Gibt die Arbeitspakete am Anfang der Warteschlange aus, sobald sie fertig verarbeitet sind. Enthält die
+	 * Warteschlange mehr als die angegebene Anzahl Pakete, wird auf das jeweils älteste Paket gewartet.
+	 * @return Anzahl der ersetzten Wörter
+	 */
+	private static int writeResults(Deque<Future<List<Result>>> results, PrintWriter writer, PrintWriter log, int maxInFlight)
+			throws InterruptedException, ExecutionException {
+		int count = 0;
+		while (! results.isEmpty()
+				&& (results.size() > maxInFlight || results.peek().isDone())) {
+			for (Result result : results.poll().get()) {
+				count += result.count();
+				writer.println(result.line());
+				for (String entry : result.log()) {
+					log.println(entry);
+				}
 			}
 		}
-		executor.shutdown();
 
 		return count;
 	}
@@ -226,7 +484,7 @@ public class PreProcess {
 			{ Pattern.compile("…!"), Pattern.compile("1") },
 			{ Pattern.compile("…"), SPACE, Pattern.compile("!"), Pattern.compile("1") },
 	};
-	static int satzzeichenErsetzen(List<String> line, SortedBag<String> ciDict) {
+	static int satzzeichenErsetzen(List<String> line, Bag<String> ciDict) {
 		int count = 0;
 		boolean tag = false;
 		if (TextUtils.endsWith(line, " ", "-")) {
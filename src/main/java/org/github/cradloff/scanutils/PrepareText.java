@@ -4,10 +4,8 @@ import java.io.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.regex.PatternSyntaxException;
 
 import org.github.cradloff.scanutils.PreProcess.Parameter;
 
@@ -83,6 +81,8 @@ public class PrepareText {
 	}
 
 	static void prepareText(Reader in, PrintWriter out, Map<String, String> replacements) throws IOException {
+		// die Ersetzungen werden nur einmal kompiliert
+		ReplacementRules replaceOnce = ReplacementRules.compile(replacements);
 		try (TextReader reader = new TextReader(new BufferedReader(in));) {
 			String line;
 			String previousLine = "";
@@ -96,7 +96,7 @@ public class PrepareText {
 				result = TextUtils.satzzeichenErsetzen(result);
 				result = changeQuotes(result);
 				result = changeSpecial(result);
-				result = replaceOnce(result, replacements);
+				result = replaceOnce.apply(result);
 				result = handleSubChapter(previousLine, result, reader.peek());
 				result = escapeDigits(result);
 				result = nonBreakingSpaces(result);
@@ -114,52 +114,48 @@ public class PrepareText {
 		}
 	}
 
+	private static final RuleSet SATZZEICHEN = new RuleSet(RuleSet.containsAny(".,…"))
+			// Punkte und … durch … ersetzen
+			.regex("…\\s?\\.", "…", RuleSet.containsAny("…"))
+			.regex("\\.\\s?…", "…", RuleSet.containsAny("…"))
+			// drei oder mehr Punkte/Kommas werden durch … ersetzt
+			.regex("[.,…]\\s?[.,…](\\s?[.,…])+", "…")
+			// doppelte Punkte durch … ersetzen
+			.regex("\\.\\s?\\.", "…", RuleSet.containsAny("."))
+			.literal("……", "…")
+			// einzelne Punkte nach Leerzeichen ersetzen
+			.literal(" . ", " … ")
+			.regex("^\\. ", "… ", s -> s.startsWith(". "))
+			.regex(" \\.$", " …", s -> s.endsWith(" ."))
+			// zwischen Punkten und Wörtern Leerzeichen einfügen
+			.regex("(\\w)…", "$1 …", RuleSet.containsAny("…"))
+			.regex("…(\\w)", "… $1", RuleSet.containsAny("…"))
+			// doppelte Kommas durch Quote ersetzen
+			.literal(",,", "\"");
 	static String changeSatzzeichen(String line) {
-		String result = line;
-		// Punkte und … durch … ersetzen
-		result = result.replaceAll("…\\s?\\.", "…");
-		result = result.replaceAll("\\.\\s?…", "…");
-		// drei oder mehr Punkte/Kommas werden durch … ersetzt
-		result = result.replaceAll("[.,…]\\s?[.,…](\\s?[.,…])+", "…");
-		// doppelte Punkte durch … ersetzen
-		result = result.replaceAll("\\.\\s?\\.", "…");
-		result = result.replace("……", "…");
-		// einzelne Punkte nach Leerzeichen ersetzen
-		result = result.replace(" . ", " … ");
-		if (result.startsWith(". ")) {
-			result = result.replaceAll("^\\. ", "… ");
-		}
-		if (result.endsWith(" .")) {
-			result = result.replaceAll(" \\.$", " …");
-		}
-
-		// zwischen Punkten und Wörtern Leerzeichen einfügen
-		result = result.replaceAll("(\\w)…", "$1 …");
-		result = result.replaceAll("…(\\w)", "… $1");
-		// doppelte Kommas durch Quote ersetzen
-		result = result.replace(",,", "\"");
-
-		return result;
+		return SATZZEICHEN.apply(line);
 	}
 
+	/** Schmierzeichen an beliebigen Stellen */
+	private static final RuleSet LITTER = new RuleSet()
+			.regex("[#_%]", "", RuleSet.containsAny("#_%"));
+	/** Schmierzeichen vorne und hinten, '$' passt auch vor einem Zeilenumbruch am Ende */
+	private static final RuleSet LITTER_START_END = new RuleSet()
+			// Schmierzeichen vorne entfernen
+			.regex("^[|/,‚.;:_‘’©>' ]+", "", RuleSet.startsWithAny("|/,‚.;:_‘’©>' "))
+			// folgende Zeichen nur entfernen, wenn sie von einem Leerzeichen gefolgt werden
+			.regex("^[\\\\“”\",¿(){}a-zA-Z0-9] ", "", s -> s.length() > 1 && s.charAt(1) == ' ')
+			// Schmierzeichen hinten entfernen
+			.regex("[|/\\\\_‘’© ]+$", "", RuleSet.endsWithAny("|/\\_‘’© "))
+			.regex(" [,.;:'()a-zA-Z0-9]$", "", s -> s.length() > 1 && s.charAt(s.length() - 2) == ' '
+					|| RuleSet.endsWithLineTerminator(s));
 	static String removeLitter(String line) {
 		// so lange wiederholen, bis sich nichts mehr ändert
 		boolean changed;
-		String result = line;
-
-		// Schmierzeichen an beliebigen Stellen entfernen
-		result = result.replaceAll("[#_%]", "");
+		String result = LITTER.apply(line);
 
 		do {
-			// Schmierzeichen vorne entfernen
-			String s = result.replaceAll("^[|/,‚.;:_‘’©>' ]+", "");
-			// folgende Zeichen nur entfernen, wenn sie von einem Leerzeichen gefolgt werden
-			s = s.replaceAll("^[\\\\“”\",¿(){}a-zA-Z0-9] ", "");
-
-			// Schmierzeichen hinten entfernen
-			s = s.replaceAll("[|/\\\\_‘’© ]+$", "");
-			s = s.replaceAll(" [,.;:'()a-zA-Z0-9]$", "");
-
+			String s = LITTER_START_END.apply(result);
 			changed = ! s.equals(result);
 			result = s;
 		} while (changed);
@@ -169,6 +165,11 @@ public class PrepareText {
 
 	private static final Pattern QUOTES = Pattern.compile("(’’)|([\"®*„“”]+)");
 	static String changeQuotes(String line) {
+		// ohne Anführungszeichen muss die Zeile nicht zerlegt werden
+		if (! QUOTES.matcher(line).find()) {
+			return line;
+		}
+
 		// Zeile in Token zerlegen
 		List<String> tokens = TextUtils.split(line);
 		for (int i = 0; i < tokens.size(); i++) {
@@ -209,97 +210,91 @@ public class PrepareText {
 		return String.join("", tokens);
 	}
 
+	private static final RuleSet DASH = new RuleSet()
+			.literal("\u0096", "—")
+			// am Wortende
+			.regex("(\\w)=", "$1-", RuleSet.containsAny("="))
+			// Gleichheitszeichen im Text
+			.regex("^-?=[-“]* ", "— ", RuleSet.containsAny("="))
+			.regex(" -?=[-“]* ", " — ", RuleSet.containsAny("="))
+			.regex(" -?=[-“]* ", " — ", RuleSet.containsAny("="))
+			.regex(" -?=[-“]*$", " —", RuleSet.containsAny("="))
+			// Trennzeichen am Zeilenende
+			.regex("[»=-]+$", "-", RuleSet.endsWithAny("»=-"));
 	static String changeDash(String line) {
-		String result = line.replace("", "—");
-		// am Wortende
-		result = result.replaceAll("(\\w)=", "$1-");
-		// Gleichheitszeichen im Text
-		result = result.replaceAll("^-?=[-“]* ", "— ");
-		result = result.replaceAll(" -?=[-“]* ", " — ");
-		result = result.replaceAll(" -?=[-“]* ", " — ");
-		result = result.replaceAll(" -?=[-“]*$", " —");
-		// Trennzeichen am Zeilenende
-		result = result.replaceAll("[»=-]+$", "-"); // sonst
-
-		return result;
+		return DASH.apply(line);
 	}
 
 	private static Pattern HEADING_PATTERN = Pattern.compile("<h\\d>.*</h\\d>");
-	public static String changeSpecial(String line) {
-		// Pagebreaks und Überschriften ignorieren
-		if (line.startsWith("<@pagebreak")
-				|| HEADING_PATTERN.matcher(line).matches()) {
-			return line;
-		}
+	private static final RuleSet SPECIAL = new RuleSet(RuleSet.containsAny("\\{}ſ[|<>&"))
+			.literal("\\", "s")
 
-		String result = line;
-		result = result.replace("\\", "s")
+			.literal("s{<", "sch")
+			.literal("s{", "sch")
+			.literal("{<", "sch")
+			.literal("{h", "sch")
+			.literal("{", "sch")
 
-				.replace("s{<", "sch")
-				.replace("s{", "sch")
-				.replace("{<", "sch")
-				.replace("{h", "sch")
-				.replace("{", "sch")
+			.literal("}", "st")
+			.literal("ſ", "s")
+			.literal("[", "s")
 
-				.replace("}", "st")
-				.replace('ſ', 's')
-				.replace('[', 's')
+			.literal("|", "!")
 
-				.replace('|', '!')
+			.literal("c<", "ch")
+			.literal("<h", "ch")
+			.literal("<", "ch")
 
-				.replace("c<", "ch")
-				.replace("<h", "ch")
-				.replace("<", "ch")
+			.literal("c>", "ck")
+			.literal("d>", "ck")
+			.literal(">k", "ck")
+			.literal(">", "ck")
 
-				.replace("c>", "ck")
-				.replace("d>", "ck")
-				.replace(">k", "ck")
-				.replace(">", "ck")
-				
-				.replace("&", "F");
+			.literal("&", "F");
+	public static String changeSpecial(String line) {
+		// Pagebreaks und Überschriften ignorieren
+		if (line.startsWith("<@pagebreak")
+				|| HEADING_PATTERN.matcher(line).matches()) {
+			return line;
+		}
 
-		return result;
+		return SPECIAL.apply(line);
 	}
 
 	public static String replaceOnce(String input, Map<String, String> replacements) {
-		String result = input;
-		for (Entry<String, String> entry : replacements.entrySet()) {
-			try {
-				result = result.replaceAll(entry.getKey(), entry.getValue());
-			} catch (PatternSyntaxException e) {
-				throw new RuntimeException("Error replacing pattern " + entry.getKey() + " with " + entry.getValue(), e);
-			}
-		}
-
-		return result;
+		return ReplacementRules.compile(replacements).apply(input);
 	}
 
+	private static final RuleSet.Rule CHAPTER = RuleSet.regexRule(
+			"^[^\\p{Alnum}]*(\\d)[.,:]? [KAFNPRTL][aägp][povy][ijlft][tflji][eacor][lfjrst]\\s*.*$", "<h2>$1. Kapitel.</h2>",
+			RuleSet.containsDigit());
 	private static String handleChapter(String line) {
-		return line.replaceAll("^[^\\p{Alnum}]*(\\d)[.,:]? [KAFNPRTL][aägp][povy][ijlft][tflji][eacor][lfjrst]\\s*.*$", "<h2>$1. Kapitel.</h2>");
+		return CHAPTER.apply(line);
 	}
 
+	private static final RuleSet.Rule SUB_CHAPTER = RuleSet.regexRule("^(.*?)[.,]?$", "<h3>$1.</h3>", s -> true);
 	private static String handleSubChapter(String previousLine, String line, String nextLine) {
 		if (previousLine.startsWith("<h2>")
 				&& ! line.isBlank()
 				// Folge-Zeile ist leer oder die Zeile ist kürzer als 40 Zeichen
 				&& ("".equals(nextLine)
 						|| line.length() < 40)) {
-			return line.replaceAll("^(.*?)[.,]?$", "<h3>$1.</h3>");
+			return SUB_CHAPTER.apply(line);
 		}
 		return line;
 	}
 
+	private static final RuleSet.Rule DIGITS = RuleSet.regexRule("^([0-9]+)\\.", "$1\\\\.", RuleSet.startsWithAny("0123456789"));
 	private static String escapeDigits(String line) {
 		// ersetze "1. April" durch "1\. April"
-		return line.replaceFirst("^([0-9]+)\\.", "$1\\\\.");
+		return DIGITS.applyFirst(line);
 	}
 
+	private static final RuleSet NON_BREAKING_SPACES = new RuleSet()
+			.literal("G. m. b. H.", "G.&nbsp;m.&nbsp;b.&nbsp;H.")
+			.regex("(\\d) (\\d{3})", "$1&nbsp;$2", RuleSet.containsDigit());
 	private static String nonBreakingSpaces(String line) {
-		String result = line;
-		result = result.replace("G. m. b. H.", "G.&nbsp;m.&nbsp;b.&nbsp;H.");
-		result = result.replaceAll("(\\d) (\\d{3})", "$1&nbsp;$2");
-
-		return result;
+		return NON_BREAKING_SPACES.apply(line);
 	}
 
 }
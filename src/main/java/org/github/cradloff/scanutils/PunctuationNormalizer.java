@@ -0,0 +1,272 @@
+package org.github.cradloff.scanutils;
+
+import java.util.Arrays;
+
+/**
+ * Normalisiert Satzzeichen in einem Durchlauf über die Zeichenkette, siehe {@link TextUtils#satzzeichenErsetzen(String)}.
+ * Die Ersetzungen werden als hintereinander geschaltete Stufen umgesetzt, die jeweils nur wenige Zeichen
+ * zurückhalten. Jede Stufe entspricht einem Schritt der ursprünglichen Ersetzungskette:
+ * <ol>
+ * <li>mehrfache Gedankenstriche durch — ersetzen, &lt;&lt; und &gt;&gt; durch « und », sowie ' ´ ‚ · durch ’ , , .</li>
+ * <li>drei oder mehr Punkte bzw. Kommas durch … ersetzen</li>
+ * <li>Punkte vor und nach … entfernen</li>
+ * <li>.-. durch … ersetzen</li>
+ * <li>,. durch … ersetzen</li>
+ * </ol>
+ * Ein Normalizer ist nicht thread-sicher, er wird pro Thread wiederverwendet.
+ */
+class PunctuationNormalizer {
+	private static final ThreadLocal<PunctuationNormalizer> INSTANCE = ThreadLocal.withInitial(PunctuationNormalizer::new);
+	/** Zeichen, bei denen sich eine Zeichenkette ändern kann */
+	private static final String TRIGGER = "-—=+<>'´‚·.,…";
+	private static final char HELLIP = '…';
+
+	private char[] out = new char[32];
+	private int length;
+	// Stufe 1: Länge der Folge von Gedankenstrichen und zurückgehaltenes '<' oder '>'
+	private int dashes;
+	private char firstDash;
+	private char angle;
+	// Stufe 2: Folge von Punkten und Kommas
+	private int dots;
+	private char dot0;
+	private char dot1;
+	// Stufe 3: zurückgehaltene Punkte und ob der letzte Nicht-Punkt ein … war
+	private int pendingDots;
+	private boolean afterHellip;
+	// Stufe 4: Anzahl der bereits erkannten Zeichen von ".-."
+	private int dotDash;
+	// Stufe 5: zurückgehaltenes ','
+	private boolean comma;
+
+	static String normalize(String s) {
+		return INSTANCE.get().apply(s);
+	}
+
+	String apply(String s) {
+		// ohne entsprechende Zeichen bleibt die Zeichenkette unverändert
+		boolean trigger = false;
+		boolean onlyDashes = true;
+		for (int i = 0; i < s.length(); i++) {
+			char ch = s.charAt(i);
+			if (TRIGGER.indexOf(ch) >= 0) {
+				trigger = true;
+			}
+			if (ch != '-' && ch != '=') {
+				onlyDashes = false;
+			}
+		}
+		// Zeichenketten nur aus Binde- und Gleichheitszeichen bleiben ebenfalls unverändert
+		if (! trigger || onlyDashes) {
+			return s;
+		}
+
+		reset(s.length());
+		for (int i = 0; i < s.length(); i++) {
+			stage1(s.charAt(i));
+		}
+		flush1();
+		flush2();
+		flush3();
+		flush4();
+		flush5();
+
+		// nichts verändert? Dann das Original zurückliefern
+		if (length == s.length()) {
+			boolean equal = true;
+			for (int i = 0; i < length && equal; i++) {
+				equal = out[i] == s.charAt(i);
+			}
+			if (equal) {
+				return s;
+			}
+		}
+
+		return new String(out, 0, length);
+	}
+
+	private void reset(int capacity) {
+		if (out.length < capacity) {
+			out = new char[Math.max(capacity, out.length * 2)];
+		}
+		length = 0;
+		dashes = 0;
+		angle = 0;
+		dots = 0;
+		pendingDots = 0;
+		afterHellip = false;
+		dotDash = 0;
+		comma = false;
+	}
+
+	/** Gedankenstriche, spitze Klammern und einzelne Zeichen */
+	private void stage1(char ch) {
+		if (ch == '-' || ch == '—' || ch == '=' || ch == '+') {
+			flushAngle();
+			if (dashes++ == 0) {
+				firstDash = ch;
+			}
+			return;
+		}
+
+		flushDashes();
+		if (ch == '<' || ch == '>') {
+			if (angle == ch) {
+				angle = 0;
+				stage2(ch == '<' ? '«' : '»');
+			} else {
+				flushAngle();
+				angle = ch;
+			}
+			return;
+		}
+
+		flushAngle();
+		switch (ch) {
+		case '\'': stage2('’'); break;
+		case '´': stage2(','); break;
+		case '‚': stage2(','); break;
+		case '·': stage2('.'); break;
+		default: stage2(ch);
+		}
+	}
+
+	private void flushDashes() {
+		if (dashes > 0) {
+			stage2(dashes > 1 ? '—' : firstDash);
+			dashes = 0;
+		}
+	}
+
+	private void flushAngle() {
+		if (angle != 0) {
+			char ch = angle;
+			angle = 0;
+			stage2(ch);
+		}
+	}
+
+	private void flush1() {
+		flushDashes();
+		flushAngle();
+	}
+
+	/** drei oder mehr Punkte bzw. Kommas */
+	private void stage2(char ch) {
+		if (ch == '.' || ch == ',') {
+			if (dots == 0) {
+				dot0 = ch;
+			} else if (dots == 1) {
+				dot1 = ch;
+			}
+			dots++;
+			return;
+		}
+
+		flush2();
+		stage3(ch);
+	}
+
+	private void flush2() {
+		if (dots >= 3) {
+			stage3(HELLIP);
+		} else if (dots > 0) {
+			stage3(dot0);
+			if (dots == 2) {
+				stage3(dot1);
+			}
+		}
+		dots = 0;
+	}
+
+	/** Punkte vor und nach … */
+	private void stage3(char ch) {
+		if (ch == '.') {
+			if (! afterHellip) {
+				pendingDots++;
+			}
+		} else if (ch == HELLIP) {
+			pendingDots = 0;
+			afterHellip = true;
+			stage4(ch);
+		} else {
+			flush3();
+			afterHellip = false;
+			stage4(ch);
+		}
+	}
+
+	private void flush3() {
+		for (; pendingDots > 0; pendingDots--) {
+			stage4('.');
+		}
+	}
+
+	/** .-. */
+	private void stage4(char ch) {
+		if (dotDash == 2) {
+			dotDash = 0;
+			if (ch == '.') {
+				stage5(HELLIP);
+				return;
+			}
+			stage5('.');
+			stage5('-');
+		} else if (dotDash == 1) {
+			if (ch == '-') {
+				dotDash = 2;
+				return;
+			}
+			dotDash = 0;
+			stage5('.');
+		}
+
+		if (ch == '.') {
+			dotDash = 1;
+		} else {
+			stage5(ch);
+		}
+	}
+
+	private void flush4() {
+		if (dotDash > 0) {
+			stage5('.');
+		}
+		if (dotDash > 1) {
+			stage5('-');
+		}
+		dotDash = 0;
+	}
+
+	/** ,. */
+	private void stage5(char ch) {
+		if (comma) {
+			comma = false;
+			if (ch == '.') {
+				emit(HELLIP);
+				return;
+			}
+			emit(',');
+		}
+
+		if (ch == ',') {
+			comma = true;
+		} else {
+			emit(ch);
+		}
+	}
+
+	private void flush5() {
+		if (comma) {
+			emit(',');
+		}
+		comma = false;
+	}
+
+	private void emit(char ch) {
+		if (length == out.length) {
+			out = Arrays.copyOf(out, length * 2);
+		}
+		out[length++] = ch;
+	}
+}
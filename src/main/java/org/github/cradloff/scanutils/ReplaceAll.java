@@ -6,7 +6,6 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.Reader;
-import java.util.Map;
 
 import org.github.cradloff.scanutils.PreProcess.Parameter;
 import org.github.cradloff.scanutils.PrepareText.TextReader;
@@ -30,7 +29,8 @@ public class ReplaceAll {
 			return;
 		}
 		
-		Map<String, String> replacements = FileAccess.readCSV(replacementsFile, "\t");
+		// die Ersetzungen werden nur einmal kompiliert und in der Reihenfolge der Datei angewendet
+		ReplacementRules replacements = ReplacementRules.compile(FileAccess.readCSV(replacementsFile, "\t"));
 		for (File input : params.getInputs()) {
 			System.out.println("Verarbeite Datei " + input.getPath());
 			File backup = FileAccess.roll(input);
@@ -39,7 +39,7 @@ public class ReplaceAll {
 					PrepareText.TextReader reader = new TextReader(new BufferedReader(in));) {
 				String line;
 				while ((line = reader.readLine()) != null) {
-					line = PrepareText.replaceOnce(line, replacements);
+					line = replacements.apply(line);
 					out.println(line);
 				}
 			}
@@ -0,0 +1,336 @@
+package org.github.cradloff.scanutils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Ersetzungen aus den Dateien replace_once.txt und replacements.csv. Die Ersetzungen werden in der
+ * Reihenfolge der Datei angewendet, jede auf das Ergebnis der vorherigen, genau wie bei
+ * <code>String.replaceAll(key, value)</code>. Damit nicht jede Regel auf jede Zeile angewendet werden muss,
+ * wird zuerst bestimmt, welche Regeln überhaupt passen können:
+ * <ul>
+ * <li>Regeln ohne Sonderzeichen werden zusammen mit einem Aho–Corasick-Automaten gesucht.</li>
+ * <li>Für reguläre Ausdrücke wird eine Zeichenkette bestimmt, die in jedem Treffer vorkommen muss. Diese
+ * wird ebenfalls über den Automaten gesucht.</li>
+ * <li>Reguläre Ausdrücke ohne eine solche Zeichenkette werden zu Gruppen zusammengefasst. Passt die
+ * Alternative aller Ausdrücke einer Gruppe nicht, wird die ganze Gruppe übersprungen.</li>
+ * </ul>
+ * Ändert eine Regel die Zeile, werden die passenden Regeln für die folgenden Regeln neu bestimmt.
+ */
+public class ReplacementRules {
+	/** maximale Anzahl von Ausdrücken in einer Gruppe */
+	private static final int GROUP_SIZE = 16;
+	private static final String META_CHARACTERS = "\\^$.|?*+()[]{}";
+
+	private final List<RuleSet.Rule> rules = new ArrayList<>();
+	/** Automat für die einfachen Regeln und die Zeichenketten der regulären Ausdrücke */
+	private final AhoCorasick automaton;
+	/** Regeln zu den Zeichenketten des Automaten */
+	private final int[][] rulesByKey;
+	/** Regeln ohne Zeichenkette, sie müssen immer geprüft werden */
+	private final BitSet unfiltered = new BitSet();
+	/** Gruppe der Regel, -1 wenn sie zu keiner Gruppe gehört */
+	private final int[] group;
+	private final List<Pattern> groups = new ArrayList<>();
+
+	private ReplacementRules(Map<String, String> replacements) {
+		Map<String, List<Integer>> keys = new LinkedHashMap<>();
+		group = new int[replacements.size()];
+		Arrays.fill(group, -1);
+		List<Integer> members = new ArrayList<>();
+		for (Entry<String, String> entry : replacements.entrySet()) {
+			String regex = entry.getKey();
+			String replacement = entry.getValue();
+			int index = rules.size();
+			String key;
+			try {
+				if (isLiteral(regex, replacement)) {
+					rules.add(RuleSet.literalRule(regex, replacement, s -> true));
+					key = regex;
+				} else {
+					rules.add(RuleSet.regexRule(regex, replacement, s -> true));
+					key = requiredLiteral(regex);
+				}
+			} catch (PatternSyntaxException e) {
+				throw new RuntimeException("Error replacing pattern " + regex + " with " + replacement, e);
+			}
+
+			if (key != null) {
+				keys.computeIfAbsent(key, k -> new ArrayList<>()).add(index);
+			} else {
+				unfiltered.set(index);
+				if (! hasBackReference(regex)) {
+					members.add(index);
+					if (members.size() == GROUP_SIZE) {
+						addGroup(members);
+					}
+				}
+			}
+		}
+		addGroup(members);
+
+		automaton = new AhoCorasick(new ArrayList<>(keys.keySet()));
+		rulesByKey = new int[keys.size()][];
+		int k = 0;
+		for (List<Integer> indexes : keys.values()) {
+			rulesByKey[k++] = indexes.stream().mapToInt(Integer::intValue).toArray();
+		}
+	}
+
+	/** Kompiliert die Ersetzungen in der Reihenfolge der Map */
+	public static ReplacementRules compile(Map<String, String> replacements) {
+		return new ReplacementRules(replacements);
+	}
+
+	private void addGroup(List<Integer> members) {
+		// eine Gruppe mit nur einem Ausdruck bringt keinen Vorteil
+		if (members.size() > 1) {
+			StringBuilder sb = new StringBuilder();
+			for (int index : members) {
+				if (sb.length() > 0) {
+					sb.append('|');
+				}
+				sb.append("(?:").append(rules.get(index).pattern()).append(')');
+			}
+			try {
+				groups.add(Pattern.compile(sb.toString()));
+				for (int index : members) {
+					group[index] = groups.size() - 1;
+				}
+			} catch (PatternSyntaxException e) {
+				// die Ausdrücke werden dann einzeln geprüft
+			}
+		}
+		members.clear();
+	}
+
+	/** Wendet alle Regeln nacheinander an */
+	public String apply(String line) {
+		String result = line;
+		BitSet candidates = candidates(result);
+		// 0: noch nicht geprüft, 1: Gruppe passt, 2: Gruppe passt nicht
+		byte[] groupState = null;
+		for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+			int g = group[i];
+			if (g >= 0) {
+				if (groupState == null) {
+					groupState = new byte[groups.size()];
+				}
+				if (groupState[g] == 0) {
+					groupState[g] = (byte) (groups.get(g).matcher(result).find() ? 1 : 2);
+				}
+				if (groupState[g] == 2) {
+					continue;
+				}
+			}
+
+			String s = rules.get(i).apply(result);
+			if (! s.equals(result)) {
+				result = s;
+				candidates = candidates(result);
+				if (groupState != null) {
+					Arrays.fill(groupState, (byte) 0);
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/** Bestimmt die Regeln, die auf die Zeile passen können */
+	private BitSet candidates(String line) {
+		BitSet candidates = (BitSet) unfiltered.clone();
+		if (rulesByKey.length > 0) {
+			BitSet found = new BitSet(rulesByKey.length);
+			automaton.find(line, found);
+			for (int k = found.nextSetBit(0); k >= 0; k = found.nextSetBit(k + 1)) {
+				for (int index : rulesByKey[k]) {
+					candidates.set(index);
+				}
+			}
+		}
+
+		return candidates;
+	}
+
+	public int size() {
+		return rules.size();
+	}
+
+	/** Kann die Regel ohne regulären Ausdruck angewendet werden? */
+	static boolean isLiteral(String regex, String replacement) {
+		if (regex.isEmpty() || replacement.indexOf('$') >= 0 || replacement.indexOf('\\') >= 0) {
+			return false;
+		}
+		for (int i = 0; i < regex.length(); i++) {
+			if (META_CHARACTERS.indexOf(regex.charAt(i)) >= 0) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/** Enthält der Ausdruck einen Rückverweis (\1 oder \k&lt;name&gt;)? */
+	static boolean hasBackReference(String regex) {
+		for (int i = 0; i < regex.length() - 1; i++) {
+			if (regex.charAt(i) == '\\') {
+				char ch = regex.charAt(i + 1);
+				if (ch >= '1' && ch <= '9' || ch == 'k') {
+					return true;
+				}
+				i++;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Bestimmt die längste Zeichenkette, die in jedem Treffer des Ausdrucks vorkommen muss. Berücksichtigt werden
+	 * nur Zeichen außerhalb von Gruppen und Zeichenklassen. Ist das nicht sicher möglich (Alternativen auf oberster
+	 * Ebene, Flags, Escape-Sequenzen mit Parametern), wird <code>null</code> zurückgeliefert.
+	 */
+	static String requiredLiteral(String regex) {
+		String best = "";
+		StringBuilder run = new StringBuilder();
+		int i = 0;
+		int len = regex.length();
+		while (i < len) {
+			char ch = regex.charAt(i);
+			int literal = -1;
+			switch (ch) {
+			case '|':
+				return null;
+			case '(':
+				// Flags wie (?i) gelten auch für die folgenden Zeichen
+				if (i + 2 < len && regex.charAt(i + 1) == '?') {
+					char next = regex.charAt(i + 2);
+					if (Character.isLetter(next) || next == '-' || next == '^') {
+						return null;
+					}
+				}
+				i = skipGroup(regex, i);
+				break;
+			case '[':
+				i = skipClass(regex, i);
+				break;
+			case '\\':
+				if (i + 1 >= len) {
+					return null;
+				}
+				char escaped = regex.charAt(i + 1);
+				i += 2;
+				if (! Character.isLetterOrDigit(escaped)) {
+					literal = escaped;
+				} else if ("tnrfae".indexOf(escaped) >= 0) {
+					literal = "\t\n\r\f\u0007\u001B".charAt("tnrfae".indexOf(escaped));
+				} else if ("dDsSwWbBhHvVRAZzGX".indexOf(escaped) < 0) {
+					// Escape-Sequenzen mit Parametern (\\u, \\x, \\p, \\Q, ...)
+					return null;
+				}
+				break;
+			case '.':
+			case '^':
+			case '$':
+				i++;
+				break;
+			default:
+				literal = ch;
+				i++;
+			}
+			if (i < 0) {
+				return null;
+			}
+
+			// folgt ein Quantor?
+			int quantifier = i < len ? regex.charAt(i) : 0;
+			boolean optional = quantifier == '?' || quantifier == '*';
+			boolean repeated = quantifier == '+';
+			if (quantifier == '{') {
+				int close = regex.indexOf('}', i);
+				if (close < 0) {
+					return null;
+				}
+				String min = regex.substring(i + 1, close).split(",", -1)[0].trim();
+				optional = min.isEmpty() || min.chars().allMatch(c -> c == '0');
+				repeated = ! optional;
+				i = close + 1;
+			} else if (optional || repeated) {
+				i++;
+			}
+			// gierig, zögernd oder besitzergreifend
+			if ((optional || repeated) && i < len && (regex.charAt(i) == '?' || regex.charAt(i) == '+')) {
+				i++;
+			}
+
+			if (literal >= 0 && ! optional) {
+				run.append((char) literal);
+			}
+			if (literal < 0 || optional || repeated) {
+				if (run.length() > best.length()) {
+					best = run.toString();
+				}
+				run.setLength(0);
+			}
+		}
+		if (run.length() > best.length()) {
+			best = run.toString();
+		}
+
+		return best.isEmpty() ? null : best;
+	}
+
+	/** liefert die Position nach der schließenden Klammer, -1 wenn sie fehlt */
+	private static int skipGroup(String regex, int start) {
+		int depth = 0;
+		for (int i = start; i < regex.length(); i++) {
+			char ch = regex.charAt(i);
+			if (ch == '\\') {
+				i++;
+			} else if (ch == '[') {
+				i = skipClass(regex, i) - 1;
+				if (i < 0) {
+					return -1;
+				}
+			} else if (ch == '(') {
+				depth++;
+			} else if (ch == ')' && --depth == 0) {
+				return i + 1;
+			}
+		}
+
+		return -1;
+	}
+
+	/** liefert die Position nach der schließenden eckigen Klammer, -1 wenn sie fehlt */
+	private static int skipClass(String regex, int start) {
+		int depth = 0;
+		for (int i = start; i < regex.length(); i++) {
+			char ch = regex.charAt(i);
+			if (ch == '\\') {
+				i++;
+			} else if (ch == '[') {
+				depth++;
+				// ']' direkt nach '[' oder '[^' ist ein normales Zeichen
+				if (i + 1 < regex.length() && regex.charAt(i + 1) == '^') {
+					i++;
+				}
+				if (i + 1 < regex.length() && regex.charAt(i + 1) == ']') {
+					i++;
+				}
+			} else if (ch == ']' && --depth == 0) {
+				return i + 1;
+			}
+		}
+
+		return -1;
+	}
+}
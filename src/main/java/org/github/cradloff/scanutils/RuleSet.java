@@ -0,0 +1,161 @@
+package org.github.cradloff.scanutils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Geordnete Menge von Ersetzungsregeln. Die regulären Ausdrücke werden einmalig kompiliert, jede Regel hat
+ * zusätzlich einen einfachen Vorfilter (z.B. ein Zeichen, das enthalten sein muss). Trifft der Vorfilter
+ * nicht zu, wird die Regel übersprungen. Für die ganze Menge kann ebenfalls ein Vorfilter angegeben werden.
+ * Die Regeln werden in der Reihenfolge ihrer Definition angewendet, jede auf das Ergebnis der vorherigen.
+ */
+public class RuleSet {
+	/** Eine Ersetzungsregel */
+	static class Rule {
+		private final Pattern pattern;
+		private final String literal;
+		private final String replacement;
+		private final Predicate<String> filter;
+
+		private Rule(Pattern pattern, String literal, String replacement, Predicate<String> filter) {
+			this.pattern = pattern;
+			this.literal = literal;
+			this.replacement = replacement;
+			this.filter = filter;
+		}
+
+		/** Wendet die Regel an, ist nichts zu ersetzen, wird die Zeichenkette selbst zurückgeliefert */
+		String apply(String s) {
+			if (! filter.test(s)) {
+				return s;
+			}
+			if (literal != null) {
+				return s.replace(literal, replacement);
+			}
+
+			return pattern.matcher(s).replaceAll(replacement);
+		}
+
+		/** Ersetzt nur das erste Vorkommen */
+		String applyFirst(String s) {
+			if (! filter.test(s)) {
+				return s;
+			}
+			if (literal != null) {
+				int i = s.indexOf(literal);
+				return i < 0 ? s : s.substring(0, i) + replacement + s.substring(i + literal.length());
+			}
+
+			return pattern.matcher(s).replaceFirst(replacement);
+		}
+
+		/** der reguläre Ausdruck der Regel */
+		String pattern() {
+			return literal != null ? Pattern.quote(literal) : pattern.pattern();
+		}
+	}
+
+	private final Predicate<String> filter;
+	private final List<Rule> rules = new ArrayList<>();
+
+	public RuleSet() {
+		this(s -> true);
+	}
+
+	/** Trifft der Vorfilter nicht zu, wird keine der Regeln angewendet */
+	public RuleSet(Predicate<String> filter) {
+		this.filter = filter;
+	}
+
+	/** Regel mit einem regulären Ausdruck */
+	public RuleSet regex(String regex, String replacement) {
+		return regex(regex, replacement, s -> true);
+	}
+
+	public RuleSet regex(String regex, String replacement, Predicate<String> filter) {
+		rules.add(regexRule(regex, replacement, filter));
+		return this;
+	}
+
+	/** Regel mit einer einfachen Zeichenkette */
+	public RuleSet literal(String target, String replacement) {
+		rules.add(literalRule(target, replacement, s -> s.contains(target)));
+		return this;
+	}
+
+	/** Wendet alle Regeln nacheinander an */
+	public String apply(String s) {
+		if (! filter.test(s)) {
+			return s;
+		}
+
+		String result = s;
+		for (Rule rule : rules) {
+			result = rule.apply(result);
+		}
+
+		return result;
+	}
+
+	public int size() {
+		return rules.size();
+	}
+
+	static Rule regexRule(String regex, String replacement, Predicate<String> filter) {
+		return new Rule(Pattern.compile(regex), null, replacement, filter);
+	}
+
+	static Rule literalRule(String target, String replacement, Predicate<String> filter) {
+		return new Rule(null, target, replacement, filter);
+	}
+
+	/** Vorfilter: enthält die Zeichenkette eines der Zeichen? */
+	static Predicate<String> containsAny(String chars) {
+		return s -> {
+			for (int i = 0; i < s.length(); i++) {
+				if (chars.indexOf(s.charAt(i)) >= 0) {
+					return true;
+				}
+			}
+			return false;
+		};
+	}
+
+	/** Vorfilter: ist das erste Zeichen eines der Zeichen? */
+	static Predicate<String> startsWithAny(String chars) {
+		return s -> ! s.isEmpty() && chars.indexOf(s.charAt(0)) >= 0;
+	}
+
+	/**
+	 * Vorfilter für Ausdrücke mit '$': ist das letzte Zeichen eines der Zeichen? Da '$' auch vor einem
+	 * Zeilenumbruch am Ende passt, trifft der Filter auch bei einem Zeilenumbruch am Ende zu.
+	 */
+	static Predicate<String> endsWithAny(String chars) {
+		return s -> ! s.isEmpty() && chars.indexOf(s.charAt(s.length() - 1)) >= 0
+				|| endsWithLineTerminator(s);
+	}
+
+	/** Endet die Zeichenkette mit einem Zeilenumbruch? */
+	static boolean endsWithLineTerminator(String s) {
+		if (s.isEmpty()) {
+			return false;
+		}
+		char ch = s.charAt(s.length() - 1);
+		return ch == '\n' || ch == '\r' || ch == '\u0085' || ch == '\u2028' || ch == '\u2029';
+	}
+
+	/** Vorfilter: enthält die Zeichenkette eine Ziffer? */
+	static Predicate<String> containsDigit() {
+		return s -> {
+			for (int i = 0; i < s.length(); i++) {
+				char ch = s.charAt(i);
+				if (ch >= '0' && ch <= '9') {
+					return true;
+				}
+			}
+			return false;
+		};
+	}
+}
@@ -0,0 +1,14 @@
+package org.github.cradloff.scanutils;
+
+/** Suche über den Skelett-Index, siehe {@link LineProcessor#skeleton(String, int)} */
+public class SkeletonCandidateGenerator implements CandidateGenerator {
+	@Override
+	public String name() {
+		return LineProcessor.ENGINE_SKELETON;
+	}
+
+	@Override
+	public String correct(LineProcessor processor, String input, int level) {
+		return processor.skeleton(input, level);
+	}
+}
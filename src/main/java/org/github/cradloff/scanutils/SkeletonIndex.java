@@ -0,0 +1,114 @@
+package org.github.cradloff.scanutils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index über das Skelett der Wörter. Im Skelett wird jedes Zeichen bzw. jede Zeichengruppe durch den Vertreter
+ * ihrer Klasse ersetzt, die Klassen stehen im Abschnitt <code>[skeleton]</code> von <code>similar_chars.cfg</code>.
+ * So haben z.B. "Waffer" und "Wasser" oder "gem" und "gern" dasselbe Skelett, und die Kandidaten für ein
+ * falsch erkanntes Wort lassen sich mit einem Zugriff auf eine Hash-Tabelle ermitteln.
+ * <p>
+ * Der Index ist unveränderlich und kann von mehreren Threads gleichzeitig verwendet werden.
+ */
+class SkeletonIndex {
+	/** Zeichengruppen je Anfangszeichen, die längsten zuerst */
+	private static final Map<Character, String[]> GROUPS;
+	/** Vertreter je Zeichengruppe */
+	private static final Map<String, Character> REPRESENTATIVES;
+	static {
+		try {
+			Map<String, Character> representatives = new HashMap<>();
+			List<String> classes = FileAccess.readConfig("similar_chars.cfg").get("skeleton");
+			for (int i = 0; i < classes.size(); i++) {
+				// die Vertreter liegen im Private Use Area und können daher in keinem Wort vorkommen
+				char representative = (char) (0xE000 + i);
+				for (String token : classes.get(i).split("\t")) {
+					if (representatives.put(token, representative) != null) {
+						throw new IllegalStateException("Token " + token + " ist in mehreren Klassen enthalten");
+					}
+				}
+			}
+			REPRESENTATIVES = representatives;
+
+			Map<Character, List<String>> groups = new HashMap<>();
+			for (String token : representatives.keySet()) {
+				groups.computeIfAbsent(token.charAt(0), ch -> new ArrayList<>()).add(token);
+			}
+			Map<Character, String[]> sorted = new HashMap<>();
+			for (Map.Entry<Character, List<String>> entry : groups.entrySet()) {
+				String[] tokens = entry.getValue().toArray(new String[0]);
+				Arrays.sort(tokens, Comparator.comparingInt(String::length).reversed().thenComparing(Comparator.naturalOrder()));
+				sorted.put(entry.getKey(), tokens);
+			}
+			GROUPS = sorted;
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/** Wörter je Skelett, sortiert */
+	private final Map<String, String[]> words;
+
+	SkeletonIndex(Collection<String> dict) {
+		Map<String, List<String>> buckets = new HashMap<>();
+		for (String word : dict) {
+			buckets.computeIfAbsent(skeleton(word), s -> new ArrayList<>(1)).add(word);
+		}
+
+		words = new HashMap<>(buckets.size() * 4 / 3 + 1);
+		for (Map.Entry<String, List<String>> entry : buckets.entrySet()) {
+			String[] bucket = entry.getValue().toArray(new String[0]);
+			Arrays.sort(bucket);
+			words.put(entry.getKey(), bucket);
+		}
+	}
+
+	/** Fügt alle Wörter mit demselben Skelett zum Ergebnis hinzu */
+	void candidates(String input, Collection<String> result) {
+		String[] bucket = words.get(skeleton(input));
+		if (bucket != null) {
+			result.addAll(Arrays.asList(bucket));
+		}
+	}
+
+	/** Anzahl der unterschiedlichen Skelette */
+	int size() {
+		return words.size();
+	}
+
+	/** Ersetzt die Zeichen bzw. Zeichengruppen durch den Vertreter ihrer Klasse, die längste Gruppe gewinnt */
+	static String skeleton(String word) {
+		StringBuilder sb = new StringBuilder(word.length());
+		int i = 0;
+		while (i < word.length()) {
+			char ch = word.charAt(i);
+			String group = null;
+			String[] tokens = GROUPS.get(ch);
+			if (tokens != null) {
+				for (String token : tokens) {
+					if (word.startsWith(token, i)) {
+						group = token;
+						break;
+					}
+				}
+			}
+
+			if (group == null) {
+				sb.append(ch);
+				i++;
+			} else {
+				sb.append(REPRESENTATIVES.get(group).charValue());
+				i += group.length();
+			}
+		}
+
+		return sb.toString();
+	}
+}
@@ -0,0 +1,170 @@
+package org.github.cradloff.scanutils;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Zwischendateien für Wörterbücher, die nicht in den Speicher passen. Wird eine Tabelle zu groß, werden die Wörter
+ * sortiert in eine Zwischendatei geschrieben und die Tabelle geleert. Am Ende werden alle Zwischendateien in einem
+ * Durchgang zusammengeführt und als Wörterbuch geschrieben. Die Zwischendateien liegen in einem temporären
+ * Verzeichnis, das beim Schließen gelöscht wird.
+ */
+class SortedRuns implements Closeable {
+	private static final Comparator<String> COMPARATOR = new CaseInsensitiveComparator();
+
+	private final File parent;
+	/** maximaler Speicherbedarf einer Tabelle in Bytes */
+	private final long limit;
+	private final List<File> runs = Collections.synchronizedList(new ArrayList<>());
+	private File dir;
+
+	SortedRuns(File parent, long limit) {
+		this.parent = parent;
+		this.limit = limit;
+	}
+
+	/** Schreibt die Tabelle in eine Zwischendatei, wenn sie zu viel Speicher belegt */
+	void spillIfFull(WordCounter counter) throws IOException {
+		if (counter.memory() > limit) {
+			spill(counter);
+		}
+	}
+
+	/** Schreibt die Wörter sortiert in eine Zwischendatei und leert die Tabelle */
+	void spill(WordCounter counter) throws IOException {
+		if (counter.size() == 0) {
+			return;
+		}
+
+		File run;
+		synchronized (this) {
+			if (dir == null) {
+				dir = Files.createTempDirectory(parent.toPath(), "runs").toFile();
+			}
+			run = new File(dir, "run" + runs.size() + ".txt");
+			runs.add(run);
+		}
+		try (Writer out = Files.newBufferedWriter(run.toPath(), StandardCharsets.UTF_8)) {
+			for (int index : counter.sorted(COMPARATOR)) {
+				out.write(counter.word(index));
+				out.write('\t');
+				out.write(Integer.toString(counter.count(index)));
+				out.write('\n');
+			}
+		}
+		counter.clear();
+	}
+
+	/** Anzahl der Zwischendateien */
+	int size() {
+		return runs.size();
+	}
+
+	/**
+	 * Führt die Zwischendateien zusammen und schreibt das Wörterbuch im Format von
+	 * {@link FileAccess#writeDictionary(File, org.apache.commons.collections4.Bag)}. Wörter, die seltener als
+	 * <code>min</code> vorkommen, entfallen. Liefert die Anzahl der geschriebenen Wörter.
+	 */
+	int merge(File file, int min) throws IOException {
+		PriorityQueue<Run> queue = new PriorityQueue<>((r1, r2) -> COMPARATOR.compare(r1.word, r2.word));
+		int count = 0;
+		try (FileWriter writer = new FileWriter(file);
+				PrintWriter out = new PrintWriter(writer)) {
+			for (File run : runs) {
+				Run r = new Run(run);
+				if (r.next()) {
+					queue.add(r);
+				} else {
+					r.close();
+				}
+			}
+
+			while (! queue.isEmpty()) {
+				Run run = queue.poll();
+				String word = run.word;
+				long total = run.count;
+				advance(queue, run);
+				// der Comparator liefert nur für gleiche Wörter 0
+				while (! queue.isEmpty() && queue.peek().word.equals(word)) {
+					run = queue.poll();
+					total += run.count;
+					advance(queue, run);
+				}
+
+				if (total >= min) {
+					out.print(word);
+					out.print("\t");
+					out.println(total);
+					count++;
+				}
+			}
+		} finally {
+			for (Run run : queue) {
+				run.close();
+			}
+		}
+
+		return count;
+	}
+
+	private static void advance(PriorityQueue<Run> queue, Run run) throws IOException {
+		if (run.next()) {
+			queue.add(run);
+		} else {
+			run.close();
+		}
+	}
+
+	/** Löscht die Zwischendateien */
+	@Override
+	public void close() throws IOException {
+		for (File run : runs) {
+			Files.deleteIfExists(run.toPath());
+		}
+		runs.clear();
+		if (dir != null) {
+			Files.deleteIfExists(dir.toPath());
+			dir = null;
+		}
+	}
+
+	/** Liest eine Zwischendatei zeilenweise */
+	private static class Run implements Closeable {
+		private final BufferedReader reader;
+		private String word;
+		private int count;
+
+		Run(File file) throws IOException {
+			reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8);
+		}
+
+		boolean next() throws IOException {
+			String line = reader.readLine();
+			if (line == null) {
+				return false;
+			}
+			int tab = line.lastIndexOf('\t');
+			word = line.substring(0, tab);
+			count = Integer.parseInt(line.substring(tab + 1));
+
+			return true;
+		}
+
+		@Override
+		public void close() throws IOException {
+			reader.close();
+		}
+	}
+}
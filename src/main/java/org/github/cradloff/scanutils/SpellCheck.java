@@ -48,8 +48,7 @@ public class SpellCheck {
 
 		// Wörterbuch einlesen
 		File basedir = FileAccess.basedir(new File("."));
-		Bag<String> dict = FileAccess.readDict(basedir, "german.dic");
-		dict = TextUtils.addUpperCase(dict);
+		DictionaryIndex index = new DictionaryIndex(FileAccess.readDict(basedir, "german.dic"));
 
 		// Dateien prüfen
 		File spellcheck = new File(basedir, "spellcheck.log");
@@ -63,15 +62,10 @@ public class SpellCheck {
 				CreateDictionary.readWords(input, words);
 			}
 
-			// Wörter aus Wörterbuch entfernen
-			for (String word : dict) {
-				words.remove(word);
-			}
-
-			// und ausgeben
+			// nicht im Wörterbuch enthaltene Wörter ausgeben
 			int count = 0;
 			for (String word : words.uniqueSet()) {
-				if (words.getCount(word) >= threshold) {
+				if (! index.contains(word) && words.getCount(word) >= threshold) {
 					count++;
 					out.printf("%s\t%,d%n", word, words.getCount(word));
 				}
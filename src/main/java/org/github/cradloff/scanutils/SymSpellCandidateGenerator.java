@@ -0,0 +1,14 @@
+package org.github.cradloff.scanutils;
+
+/** Suche über den SymSpell-Index, siehe {@link LineProcessor#symSpell(String, int)} */
+public class SymSpellCandidateGenerator implements CandidateGenerator {
+	@Override
+	public String name() {
+		return LineProcessor.ENGINE_SYMSPELL;
+	}
+
+	@Override
+	public String correct(LineProcessor processor, String input, int level) {
+		return processor.symSpell(input, level);
+	}
+}
@@ -0,0 +1,161 @@
+package org.github.cradloff.scanutils;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Index für die Suche nach Wörtern mit einem Abstand von höchstens {@link #MAX_DISTANCE} nach dem
+ * SymSpell-Verfahren. Für jedes Wort werden alle Varianten abgelegt, die durch Löschen von bis zu
+ * {@link #MAX_DISTANCE} Zeichen aus den ersten {@link #PREFIX_LENGTH} Zeichen entstehen. Bei der Suche werden
+ * die Varianten der Präfixe des gesuchten Worts gebildet und im Index nachgeschlagen, die Kosten hängen damit
+ * nur von der Länge des Präfix ab und nicht von der Größe des Wörterbuchs. Die gefundenen Wörter werden
+ * anschließend mit {@link LevenshteinDistance} geprüft.
+ * <p>
+ * Statt der Varianten selbst wird nur ein Hash mit 40 Bit abgelegt, zusammen mit der Nummer des Worts in einem
+ * sortierten long-Array. Kollisionen liefern lediglich zusätzliche Kandidaten, die bei der Prüfung herausfallen.
+ * Der Index ist unveränderlich und kann von mehreren Threads gleichzeitig verwendet werden.
+ */
+class SymSpellIndex {
+	/** maximaler Abstand, für den der Index aufgebaut wird */
+	static final int MAX_DISTANCE = 2;
+	/** Anzahl Zeichen am Wortanfang, die in den Index eingehen */
+	static final int PREFIX_LENGTH = 7;
+	private static final int ID_BITS = 24;
+	private static final long ID_MASK = (1L << ID_BITS) - 1;
+
+	/** alle Wörter, sortiert */
+	private final String[] words;
+	/** Hash der Variante in den oberen 40 Bit, Nummer des Worts in den unteren 24 Bit, sortiert */
+	private final long[] entries;
+
+	SymSpellIndex(Collection<String> dict) {
+		words = dict.toArray(new String[dict.size()]);
+		if (words.length > ID_MASK) {
+			throw new IllegalArgumentException("Das Wörterbuch ist zu groß: " + words.length);
+		}
+		Arrays.sort(words);
+
+		long[] entries = new long[words.length * 8];
+		long[] hashes = new long[64];
+		int size = 0;
+		for (int id = 0; id < words.length; id++) {
+			int count = deletes(words[id], Math.min(words[id].length(), PREFIX_LENGTH), MAX_DISTANCE, hashes, 0);
+			// doppelte Varianten (z.B. aus "aab") nur einmal ablegen
+			Arrays.sort(hashes, 0, count);
+			for (int i = 0; i < count; i++) {
+				if (i == 0 || hashes[i] != hashes[i - 1]) {
+					if (size == entries.length) {
+						entries = Arrays.copyOf(entries, size * 2);
+					}
+					entries[size++] = hashes[i] << ID_BITS | id;
+				}
+			}
+		}
+		entries = Arrays.copyOf(entries, size);
+		Arrays.parallelSort(entries);
+		this.entries = entries;
+	}
+
+	/**
+	 * Fügt alle Wörter mit einem Abstand von höchstens <code>maxDistance</code> zum Ergebnis hinzu, in der
+	 * Reihenfolge des Wörterbuchs.
+	 */
+	void candidates(String input, int maxDistance, Collection<String> result) {
+		int distance = Math.min(maxDistance, MAX_DISTANCE);
+		if (distance < 0) {
+			return;
+		}
+
+		// Einfügungen und Löschungen verschieben die Grenze des Präfix im gesuchten Wort, deshalb werden alle
+		// Präfixe gesucht, die sich um höchstens distance Zeichen von PREFIX_LENGTH unterscheiden
+		long[] hashes = new long[256];
+		int count = 0;
+		int maxLength = Math.min(input.length(), PREFIX_LENGTH + distance);
+		for (int length = Math.min(maxLength, PREFIX_LENGTH - distance); length <= maxLength; length++) {
+			count = deletes(input, length, distance, hashes, count);
+		}
+		Arrays.sort(hashes, 0, count);
+		int[] ids = new int[16];
+		int found = 0;
+		for (int i = 0; i < count; i++) {
+			if (i > 0 && hashes[i] == hashes[i - 1]) {
+				continue;
+			}
+			long key = hashes[i] << ID_BITS;
+			for (int e = first(key); e < entries.length && (entries[e] & ~ID_MASK) == key; e++) {
+				if (found == ids.length) {
+					ids = Arrays.copyOf(ids, found * 2);
+				}
+				ids[found++] = (int) (entries[e] & ID_MASK);
+			}
+		}
+
+		Arrays.sort(ids, 0, found);
+		for (int i = 0; i < found; i++) {
+			if (i > 0 && ids[i] == ids[i - 1]) {
+				continue;
+			}
+			String word = words[ids[i]];
+			if (Math.abs(word.length() - input.length()) <= distance
+					&& LevenshteinDistance.compare(input, word, distance) >= 0) {
+				result.add(word);
+			}
+		}
+	}
+
+	/** Anzahl der Einträge im Index */
+	int size() {
+		return entries.length;
+	}
+
+	/** Position des ersten Eintrags, der größer oder gleich dem Schlüssel ist */
+	private int first(long key) {
+		int low = 0;
+		int high = entries.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (entries[mid] < key) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+
+		return low;
+	}
+
+	/**
+	 * Bildet die Hashes aller Varianten der ersten <code>length</code> Zeichen mit bis zu <code>distance</code>
+	 * gelöschten Zeichen, ohne die Varianten selbst zu erzeugen. Die Hashes werden ab <code>offset</code>
+	 * abgelegt, geliefert wird die neue Anzahl.
+	 */
+	private static int deletes(String word, int length, int distance, long[] hashes, int offset) {
+		int count = offset;
+		hashes[count++] = hash(word, length, -1, -1);
+		if (distance >= 1) {
+			for (int i = 0; i < length; i++) {
+				hashes[count++] = hash(word, length, i, -1);
+				if (distance >= 2) {
+					for (int j = i + 1; j < length; j++) {
+						hashes[count++] = hash(word, length, i, j);
+					}
+				}
+			}
+		}
+
+		return count;
+	}
+
+	/** 40-Bit Hash über die ersten <code>length</code> Zeichen ohne die Zeichen an den Positionen skip1 und skip2 */
+	private static long hash(String word, int length, int skip1, int skip2) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < length; i++) {
+			if (i != skip1 && i != skip2) {
+				hash ^= word.charAt(i);
+				hash *= 0x100000001b3L;
+			}
+		}
+
+		return CorrectionCacheFile.mix(hash) >>> ID_BITS;
+	}
+}
@@ -1,6 +1,5 @@
 package org.github.cradloff.scanutils;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -11,77 +10,30 @@ import org.apache.commons.collections4.bag.HashBag;
 
 public class TextUtils {
 
+	/**
+	 * Normalisiert die Satzzeichen: mehrfache Gedankenstriche zusammenfassen (nicht bei ganzen Zeilen),
+	 * &lt;&lt; und &gt;&gt; in « und » umwandeln, gerade Anführungszeichen durch typographische ersetzen,
+	 * Apostroph unten durch Komma und mittleren Punkt durch normalen Punkt ersetzen, sowie drei
+	 * (oder mehr) Punkte durch … ersetzen. Bleibt die Zeichenkette unverändert, wird sie selbst zurückgeliefert.
+	 */
 	public static String satzzeichenErsetzen(String line) {
-		String result = line;
-		// mehrfache Gedankenstriche zusammenfassen (nicht bei ganzen Zeilen)
-		if (! result.matches("^[-=]*$")) {
-			result = result.replaceAll("[-—=+]{2,}", "—");
-		}
-
-		// << und >> in « und » umwandeln
-		result = result.replace("<<", "«");
-		result = result.replace(">>", "»");
-
-		// gerade Anführungszeichen durch typographische ersetzen
-		result = result.replace('\'', '’');
-		result = result.replace('´', ',');
-
-		// Apostroph unten durch Komma ersetzen
-		result = result.replace('‚', ',');
-
-		// mittleren Punkt durch normalen Punkt ersetzen
-		result = result.replace('·', '.');
-
-		// drei (oder mehr) Punkte durch … ersetzen
-		result = result.replaceAll("[.,]{3,}", "…");
-		result = result.replaceAll("\\.*[…]\\.*", "…");
-		result = result.replace(".-.", "…");
-		return result.replace(",.", "…");
+		return PunctuationNormalizer.normalize(line);
 	}
 
 	enum State { WHITESPACE, WORD, TAG, PUNCTUATION }
 	private static final String PUNCTUATION_CHARS = ".…,;:-—!?()[]{}»«›‹„“”\"*_";
 	public static List<String> split(CharSequence line) {
-		StringBuilder sb = new StringBuilder();
-		List<String> result = new ArrayList<>();
-		State state = State.WHITESPACE;
-		final int len = line.length();
-		for (int i = 0; i < len; i++) {
-			char ch = line.charAt(i);
-			State newState;
-			if (Character.isWhitespace(ch)) {
-				newState = State.WHITESPACE;
-			}
-			// Bindestriche, außer vor Großbuchstaben, werden ebenfalls wie Buchstaben behandelt
-			else if (isDash(ch)
-					&& (i == len - 1 && state == State.WORD
-					|| i < len - 1 && Character.isLowerCase(line.charAt(i + 1)))) {
-				newState = State.WORD;
-			} else if (PUNCTUATION_CHARS.indexOf(ch) >= 0) {
-				newState = State.PUNCTUATION;
-			} else if (ch == '<' || ch == '/' || ch == '@' || ch == '>') {
-				newState = State.TAG;
-			} else {
-				newState = State.WORD;
-			}
-			if (state != newState && i > 0) {
-				result.add(sb.toString());
-				sb.setLength(0);
-			}
-			sb.append(ch);
-			state = newState;
-		}
-		if (sb.length() > 0) {
-			result.add(sb.toString());
-		}
+		return new Tokenizer().tokenize(line).tokens();
+	}
 
-		return result;
+	static boolean isPunctuation(char ch) {
+		return PUNCTUATION_CHARS.indexOf(ch) >= 0;
 	}
 
 	/** Fügt dem Wörterbuch alle klein geschriebenen Wörter auch in Groß-Schreibweise hinzu */
 	public static Bag<String> addUpperCase(Bag<String> dict) {
 		Bag<String> ciDict = new HashBag<>(dict);
-		for (String s : dict) {
+		for (String s : dict.uniqueSet()) {
 			if (! s.isEmpty() && Character.isLowerCase(s.charAt(0))) {
 				String t = toUpperCase(s);
 				if (! ciDict.contains(t)) {
@@ -220,20 +172,60 @@ public class TextUtils {
 		return equal;
 	}
 
-	private static final Pattern END_OF_TAG = Pattern.compile("['\"/;]*>.*");
+	/** Entspricht dem regulären Ausdruck <code>['"/;]*&gt;.*</code>, außer "&gt;&gt;" */
 	public static boolean endOfTag(String token) {
-		return END_OF_TAG.matcher(token).matches() && ! token.startsWith(">>");
+		int i = 0;
+		final int len = token.length();
+		while (i < len && "'\"/;".indexOf(token.charAt(i)) >= 0) {
+			i++;
+		}
+		if (i == len || token.charAt(i) != '>' || token.startsWith(">>")) {
+			return false;
+		}
+		// '.' passt auf alles außer Zeilenumbrüche
+		for (i++; i < len; i++) {
+			if (isLineTerminator(token.charAt(i))) {
+				return false;
+			}
+		}
+
+		return true;
 	}
 
-	private static final Pattern START_OF_TAG = Pattern.compile("[^<]*<[/@,.]*");
+	private static boolean isLineTerminator(char ch) {
+		return ch == '\n' || ch == '\r' || ch == '\u0085' || ch == '\u2028' || ch == '\u2029';
+	}
+
+	/** Entspricht dem regulären Ausdruck <code>[^&lt;]*&lt;[/@,.]*</code>, außer "&lt;&lt;" am Ende */
 	public static boolean startOfTag(String token) {
-		return START_OF_TAG.matcher(token).matches() && ! token.endsWith("<<");
+		int i = token.indexOf('<');
+		if (i < 0 || token.endsWith("<<")) {
+			return false;
+		}
+		for (i++; i < token.length(); i++) {
+			if ("/@,.".indexOf(token.charAt(i)) < 0) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/** Besteht die Zeichenkette nur aus Zeichen der Auswahl? */
+	public static boolean consistsOf(String s, String chars) {
+		for (int i = 0; i < s.length(); i++) {
+			if (chars.indexOf(s.charAt(i)) < 0) {
+				return false;
+			}
+		}
+
+		return true;
 	}
 
 	/** Erzeugt ein Wörterbuch, in dem alle Einträge rückwärts enthalten sind (also z.B. "riw" statt "wir") */
 	public static SortedSet<String> inverse(Bag<String> ciDict) {
 		SortedSet<String> result = new TreeSet<>();
-		for (String entry : ciDict) {
+		for (String entry : ciDict.uniqueSet()) {
 			result.add(reverse(entry));
 		}
 
@@ -0,0 +1,149 @@
+package org.github.cradloff.scanutils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.github.cradloff.scanutils.TextUtils.State;
+
+/**
+ * Zerlegt eine Zeile in Token, ohne für jedes Token einen String anzulegen. Es werden nur Anfang, Ende und
+ * Typ der Token in wiederverwendbaren Puffern abgelegt, Strings werden erst bei Bedarf erzeugt. Die Zerlegung
+ * entspricht {@link TextUtils#split(CharSequence)}.
+ * <p>
+ * Ein Tokenizer kann für beliebig viele Zeilen verwendet werden, ist aber nicht thread-sicher.
+ */
+public class Tokenizer {
+	private static final State[] STATES = State.values();
+
+	private CharSequence text = "";
+	private int[] start = new int[32];
+	private int[] end = new int[32];
+	private byte[] state = new byte[32];
+	private int size;
+
+	/** Zerlegt die Zeile in Token */
+	public Tokenizer tokenize(CharSequence line) {
+		text = line;
+		size = 0;
+		State currState = State.WHITESPACE;
+		int tokenStart = 0;
+		final int len = line.length();
+		for (int i = 0; i < len; i++) {
+			char ch = line.charAt(i);
+			State newState;
+			if (Character.isWhitespace(ch)) {
+				newState = State.WHITESPACE;
+			}
+			// Bindestriche, außer vor Großbuchstaben, werden ebenfalls wie Buchstaben behandelt
+			else if (TextUtils.isDash(ch)
+					&& (i == len - 1 && currState == State.WORD
+					|| i < len - 1 && Character.isLowerCase(line.charAt(i + 1)))) {
+				newState = State.WORD;
+			} else if (TextUtils.isPunctuation(ch)) {
+				newState = State.PUNCTUATION;
+			} else if (ch == '<' || ch == '/' || ch == '@' || ch == '>') {
+				newState = State.TAG;
+			} else {
+				newState = State.WORD;
+			}
+			if (currState != newState && i > 0) {
+				add(tokenStart, i, currState);
+				tokenStart = i;
+			}
+			currState = newState;
+		}
+		if (len > 0) {
+			add(tokenStart, len, currState);
+		}
+
+		return this;
+	}
+
+	private void add(int from, int to, State tokenState) {
+		if (size == start.length) {
+			int capacity = size * 2;
+			start = Arrays.copyOf(start, capacity);
+			end = Arrays.copyOf(end, capacity);
+			state = Arrays.copyOf(state, capacity);
+		}
+		start[size] = from;
+		end[size] = to;
+		state[size] = (byte) tokenState.ordinal();
+		size++;
+	}
+
+	/** Anzahl der Token */
+	public int size() {
+		return size;
+	}
+
+	/** Anfang des Tokens in der Zeile */
+	public int start(int index) {
+		return start[index];
+	}
+
+	/** Ende des Tokens (exklusiv) in der Zeile */
+	public int end(int index) {
+		return end[index];
+	}
+
+	public int length(int index) {
+		return end[index] - start[index];
+	}
+
+	State state(int index) {
+		return STATES[state[index]];
+	}
+
+	/** Erstes Zeichen des Tokens */
+	public char firstChar(int index) {
+		return text.charAt(start[index]);
+	}
+
+	/** Beginnt das Token mit der angegebenen Zeichenkette? */
+	public boolean startsWith(int index, String prefix) {
+		return regionMatches(index, 0, prefix);
+	}
+
+	/** Endet das Token mit der angegebenen Zeichenkette? */
+	public boolean endsWith(int index, String suffix) {
+		return regionMatches(index, length(index) - suffix.length(), suffix);
+	}
+
+	private boolean regionMatches(int index, int offset, String s) {
+		if (offset < 0 || offset + s.length() > length(index)) {
+			return false;
+		}
+		int from = start[index] + offset;
+		for (int i = 0; i < s.length(); i++) {
+			if (text.charAt(from + i) != s.charAt(i)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/** Erzeugt den String für das Token */
+	public String token(int index) {
+		return text.subSequence(start[index], end[index]).toString();
+	}
+
+	/** Erzeugt den String für einen Teil des Tokens */
+	public String token(int index, int from, int to) {
+		return text.subSequence(start[index] + from, start[index] + to).toString();
+	}
+
+	/** Liefert alle Token als Liste */
+	public List<String> tokens() {
+		// bei einem String werden die Token direkt per substring erzeugt
+		String s = text.toString();
+		List<String> result = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			result.add(s.substring(start[i], end[i]));
+		}
+
+		return result;
+	}
+}
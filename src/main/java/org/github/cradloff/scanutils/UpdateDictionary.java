@@ -2,6 +2,15 @@ package org.github.cradloff.scanutils;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
 
 import org.apache.commons.collections4.Bag;
 import org.apache.commons.collections4.bag.TreeBag;
@@ -9,8 +18,12 @@ import org.apache.commons.collections4.bag.TreeBag;
 public class UpdateDictionary {
 	public static void main(String... args) throws IOException {
 		long start = System.currentTimeMillis();
+		boolean persistentCache = args.length > 0 && args[0].equals("-cache");
+		if (persistentCache) {
+			args = Arrays.copyOfRange(args, 1, args.length);
+		}
 		if (args.length > 1) {
-			System.out.println("Aufruf: UpdateDictionary <Verzeichnis>");
+			System.out.println("Aufruf: UpdateDictionary [-cache] <Verzeichnis>");
 
 			return;
 		}
@@ -32,25 +45,180 @@ public class UpdateDictionary {
 		File file = new File(baseDir, "german.dic");
 		Bag<String> german = FileAccess.readDict(file);
 
-		// nach Markdown-Dateien suchen
-		Bag<String> dictionary = new TreeBag<>();
-		CreateDictionary.addWords(baseDir, dictionary);
-
-		// Häufigkeiten aktualisieren
-		german = updateStatistics(german, dictionary);
+		// nach Markdown-Dateien suchen und Häufigkeiten aktualisieren
+		File cacheFile = persistentCache ? new File(baseDir, WordCountCache.FILENAME) : null;
+		german = updateStatistics(baseDir, german, cacheFile);
 
 		FileAccess.writeDictionary(file, german);
 		System.out.printf("Wörterbuch %s aktualisiert (%,d Wörter, %,d ms)%n", file.getPath(), german.uniqueSet().size(),
 				(System.currentTimeMillis() - start));
 	}
 
-	private static Bag<String> updateStatistics(Bag<String> german, Bag<String> dictionary) {
+	/**
+	 * Zählt die Wörter des Wörterbuchs in allen .md-Dateien. Andere Wörter werden beim Einlesen übergangen.
+	 * Ist eine Cache-Datei angegeben, werden nur neue und geänderte Dateien eingelesen, für alle anderen werden
+	 * die Häufigkeiten aus dem Cache übernommen. Wörter, die nicht mehr vorkommen, entfallen wie bisher.
+	 * Ohne Cache-Datei werden nur die Summen gebildet, die Häufigkeiten der einzelnen Dateien werden nicht gehalten.
+	 */
+	static Bag<String> updateStatistics(File baseDir, Bag<String> german, File cacheFile) throws IOException {
+		// Index der Wörterbuch-Wörter, er wird beim Zählen nur gelesen
+		WordCounter index = new WordCounter();
+		for (String word : german.uniqueSet()) {
+			index.add(word);
+		}
+
+		List<File> files = new ArrayList<>();
+		CreateDictionary.listFiles(baseDir, files);
+		int[] totals;
+		WordCountCache newCache = null;
+		AtomicInteger scanned = new AtomicInteger();
+		try {
+			if (cacheFile == null) {
+				// jeder Thread zählt in eigene Summen, sie werden am Ende zusammengefasst
+				totals = files.parallelStream()
+						.collect(() -> new int[index.size()], (t, f) -> count(f, index, t), UpdateDictionary::add);
+			} else {
+				WordCountCache cache = WordCountCache.load(cacheFile, WordCountCache.fingerprint(german.uniqueSet()));
+				System.out.printf("verwende Cache %s (%,d Dateien)%n", cacheFile.getPath(), cache.size());
+				WordCountCache.Entry[] entries = files.parallelStream()
+						.map(f -> count(baseDir, f, index, cache, scanned))
+						.toArray(WordCountCache.Entry[]::new);
+
+				// Summen bilden, neue Einträge übernehmen, gelöschte Dateien entfallen
+				totals = new int[index.size()];
+				newCache = new WordCountCache();
+				for (int i = 0; i < files.size(); i++) {
+					WordCountCache.Entry entry = entries[i];
+					for (int w = 0; w < entry.counts.length; w++) {
+						int idx = entry.indexes != null ? entry.indexes[w] : index.indexOf(entry.words()[w]);
+						if (idx >= 0) {
+							totals[idx] += entry.counts[w];
+						}
+					}
+					newCache.put(relativePath(baseDir, files.get(i)), entry);
+				}
+			}
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+
 		Bag<String> result = new TreeBag<>(new CaseInsensitiveComparator());
 		for (String word : german.uniqueSet()) {
-			result.add(word, dictionary.getCount(word));
+			result.add(word, totals[index.indexOf(word)]);
+		}
+
+		if (newCache != null) {
+			System.out.printf("%,d von %,d Dateien eingelesen%n", scanned.get(), files.size());
+			// die Einträge enthalten nur Wörter, die auch im neuen Wörterbuch stehen
+			newCache.save(cacheFile, WordCountCache.fingerprint(result.uniqueSet()));
 		}
 
 		return result;
 	}
 
+	private static void add(int[] totals, int[] other) {
+		for (int i = 0; i < totals.length; i++) {
+			totals[i] += other[i];
+		}
+	}
+
+	/** Zählt die Wörter einer Datei und addiert sie zu den Summen */
+	private static void count(File file, WordCounter index, int[] totals) {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer buffer = WordCounter.read(channel, ByteBuffer.allocate(0));
+			scan(file, buffer, index, idx -> totals[idx]++);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Zählt die Wörter einer Datei oder übernimmt die Häufigkeiten aus dem Cache. Der Hash über den Inhalt wird
+	 * für den nächsten Lauf im Cache gespeichert, bei gleicher Größe erkennt er eine nur berührte Datei.
+	 */
+	private static WordCountCache.Entry count(File baseDir, File file, WordCounter index, WordCountCache cache,
+			AtomicInteger scanned) {
+		WordCountCache.Entry cached = cache.get(relativePath(baseDir, file));
+		long size = file.length();
+		long modified = file.lastModified();
+		if (cached != null && cached.size == size && cached.modified == modified) {
+			return cached;
+		}
+
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer buffer = WordCounter.read(channel, ByteBuffer.allocate(0));
+			long hash = WordCountCache.contentHash(buffer);
+			// nur die Änderungszeit ist neu?
+			if (cached != null && cached.size == buffer.limit() && cached.hash == hash) {
+				return cached.touch(modified);
+			}
+
+			scanned.incrementAndGet();
+			Indexes indexes = new Indexes();
+			scan(file, buffer, index, indexes::add);
+
+			return indexes.toEntry(buffer.limit(), modified, hash, index);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/** Übergibt die Indizes der gefundenen Wörterbuch-Wörter */
+	private static void scan(File file, ByteBuffer buffer, WordCounter index, IntConsumer found) throws IOException {
+		if (WordCounter.isValidUtf8(buffer)) {
+			WordCounter.scan(buffer, (b, from, len) -> {
+				int idx = index.indexOf(b, from, len);
+				if (idx >= 0) {
+					found.accept(idx);
+				}
+			});
+		} else {
+			List<String> words = new ArrayList<>();
+			CreateDictionary.readLines(file, words);
+			for (String word : words) {
+				int idx = index.indexOf(word);
+				if (idx >= 0) {
+					found.accept(idx);
+				}
+			}
+		}
+	}
+
+	private static String relativePath(File baseDir, File file) {
+		return baseDir.toPath().relativize(file.toPath()).toString().replace(File.separatorChar, '/');
+	}
+
+	/** Indizes der gefundenen Wörterbuch-Wörter einer Datei */
+	private static class Indexes {
+		private int[] values = new int[64];
+		private int size;
+
+		void add(int index) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = index;
+		}
+
+		/** Fasst gleiche Indizes zu Häufigkeiten zusammen */
+		WordCountCache.Entry toEntry(long fileSize, long modified, long hash, WordCounter index) {
+			Arrays.sort(values, 0, size);
+			int[] indexes = new int[size];
+			int[] counts = new int[size];
+			int n = 0;
+			for (int i = 0; i < size;) {
+				int j = i;
+				while (j < size && values[j] == values[i]) {
+					j++;
+				}
+				indexes[n] = values[i];
+				counts[n] = j - i;
+				n++;
+				i = j;
+			}
+
+			return new WordCountCache.Entry(fileSize, modified, hash, Arrays.copyOf(indexes, n), index,
+					Arrays.copyOf(counts, n));
+		}
+	}
 }
@@ -0,0 +1,186 @@
+package org.github.cradloff.scanutils;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Speichert für {@link UpdateDictionary} die Häufigkeiten der Wörterbuch-Wörter je Datei. Die erste Zeile enthält
+ * den Fingerabdruck des Wörterbuchs, danach folgt je Datei eine Zeile mit Pfad, Größe, Änderungszeit, Hash des
+ * Inhalts und den Wörtern mit ihrer Häufigkeit, alles durch Tab getrennt:
+ * <pre>
+ * 1f3a...
+ * buch/kapitel1.md	12345	1700000000000	9c2e...	Haus	3	Baum	1
+ * </pre>
+ * Stimmen Größe und Änderungszeit überein, wird die Datei nicht neu eingelesen. Ändert sich nur die Änderungszeit,
+ * wird über den Hash erkannt, ob sich der Inhalt geändert hat. Passt der Fingerabdruck nicht zum Wörterbuch,
+ * werden alle Einträge verworfen.
+ */
+class WordCountCache {
+	/** Name der Datei, sie liegt im Verzeichnis des Wörterbuchs */
+	static final String FILENAME = "wordcount.cache";
+
+	/**
+	 * Häufigkeiten der Wörter einer Datei. Bei neu eingelesenen Dateien sind die Wörter als Index im Wörterbuch
+	 * abgelegt, die Strings werden erst beim Speichern erzeugt.
+	 */
+	static class Entry {
+		final long size;
+		final long modified;
+		final long hash;
+		private String[] words;
+		final int[] indexes;
+		private final WordCounter index;
+		final int[] counts;
+
+		Entry(long size, long modified, long hash, String[] words, int[] counts) {
+			this(size, modified, hash, words, null, null, counts);
+		}
+
+		Entry(long size, long modified, long hash, int[] indexes, WordCounter index, int[] counts) {
+			this(size, modified, hash, null, indexes, index, counts);
+		}
+
+		private Entry(long size, long modified, long hash, String[] words, int[] indexes, WordCounter index, int[] counts) {
+			this.size = size;
+			this.modified = modified;
+			this.hash = hash;
+			this.words = words;
+			this.indexes = indexes;
+			this.index = index;
+			this.counts = counts;
+		}
+
+		/** Die Einträge mit neuer Änderungszeit */
+		Entry touch(long newModified) {
+			return new Entry(size, newModified, hash, words, indexes, index, counts);
+		}
+
+		String[] words() {
+			if (words == null) {
+				words = new String[indexes.length];
+				for (int i = 0; i < indexes.length; i++) {
+					words[i] = index.word(indexes[i]);
+				}
+			}
+
+			return words;
+		}
+	}
+
+	private final Map<String, Entry> entries;
+
+	WordCountCache() {
+		this(new TreeMap<>());
+	}
+
+	private WordCountCache(Map<String, Entry> entries) {
+		this.entries = entries;
+	}
+
+	/** Lädt die Einträge, passt der Fingerabdruck nicht, ist der Cache leer */
+	static WordCountCache load(File file, String fingerprint) throws IOException {
+		Map<String, Entry> entries = new TreeMap<>();
+		if (file.exists()) {
+			try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+				String line = reader.readLine();
+				if (fingerprint.equals(line)) {
+					for (line = reader.readLine(); line != null; line = reader.readLine()) {
+						String[] s = line.split("\t", -1);
+						if (s.length < 4 || s.length % 2 != 0) {
+							continue;
+						}
+						int n = (s.length - 4) / 2;
+						String[] words = new String[n];
+						int[] counts = new int[n];
+						for (int i = 0; i < n; i++) {
+							words[i] = s[4 + 2 * i];
+							counts[i] = Integer.parseInt(s[5 + 2 * i]);
+						}
+						entries.put(s[0], new Entry(Long.parseLong(s[1]), Long.parseLong(s[2]),
+								Long.parseUnsignedLong(s[3], 16), words, counts));
+					}
+				}
+			} catch (NumberFormatException e) {
+				System.out.printf("Warnung: %s ist fehlerhaft und wird neu erstellt%n", file.getPath());
+				entries.clear();
+			}
+		}
+
+		return new WordCountCache(entries);
+	}
+
+	/** Schreibt alle Einträge, die Datei wird dabei ersetzt */
+	void save(File file, String fingerprint) throws IOException {
+		File tmp = new File(file.getPath() + ".tmp");
+		try (Writer out = Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8)) {
+			out.write(fingerprint);
+			out.write('\n');
+			for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+				String path = mapEntry.getKey();
+				// Tabs und Zeilenumbrüche würden das Format zerstören
+				if (path.indexOf('\t') >= 0 || path.indexOf('\n') >= 0 || path.indexOf('\r') >= 0) {
+					continue;
+				}
+				Entry entry = mapEntry.getValue();
+				out.write(path);
+				out.write('\t');
+				out.write(Long.toString(entry.size));
+				out.write('\t');
+				out.write(Long.toString(entry.modified));
+				out.write('\t');
+				out.write(Long.toHexString(entry.hash));
+				String[] words = entry.words();
+				for (int i = 0; i < words.length; i++) {
+					out.write('\t');
+					out.write(words[i]);
+					out.write('\t');
+					out.write(Integer.toString(entry.counts[i]));
+				}
+				out.write('\n');
+			}
+		}
+		Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	Entry get(String path) {
+		return entries.get(path);
+	}
+
+	void put(String path, Entry entry) {
+		entries.put(path, entry);
+	}
+
+	int size() {
+		return entries.size();
+	}
+
+	/** Fingerabdruck über die Wörter des Wörterbuchs, die Reihenfolge spielt keine Rolle */
+	static String fingerprint(Collection<String> words) {
+		long hash = words.size();
+		for (String word : words) {
+			hash += CorrectionCacheFile.mix(CorrectionCacheFile.hash(word));
+		}
+
+		return Long.toHexString(CorrectionCacheFile.mix(hash));
+	}
+
+	/** 64-Bit FNV-1a Hash über den Inhalt einer Datei */
+	static long contentHash(ByteBuffer buffer) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < buffer.limit(); i++) {
+			hash ^= buffer.get(i) & 0xff;
+			hash *= 0x100000001b3L;
+		}
+
+		return hash;
+	}
+}
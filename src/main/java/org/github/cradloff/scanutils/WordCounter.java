@@ -0,0 +1,418 @@
+package org.github.cradloff.scanutils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+import org.apache.commons.collections4.Bag;
+
+/**
+ * Zählt die Wörter in UTF-8-Dateien, ohne die Dateien in Strings umzuwandeln. Die Bytes werden direkt nach
+ * Wortgrenzen durchsucht, dabei gelten dieselben Regeln wie bei {@link TextUtils#split(CharSequence)} und
+ * {@link CreateDictionary#readWords(File, Collection)}: nur Token, die mit einem Buchstaben beginnen, werden
+ * gezählt, ein '&amp;nbsp' am Ende wird entfernt. Die Wörter werden in einer Hash-Tabelle über die Bytes
+ * gezählt, Strings werden erst am Ende und nur für unterschiedliche Wörter erzeugt.
+ * <p>
+ * Große Dateien werden in den Speicher eingeblendet, kleine direkt eingelesen. Ein WordCounter kann für
+ * beliebig viele Dateien verwendet werden, ist aber nicht thread-sicher.
+ */
+class WordCounter {
+	/** ab dieser Größe wird eine Datei eingeblendet statt eingelesen */
+	private static final int MAP_THRESHOLD = 1 << 20;
+	private static final byte[] NBSP = "&nbsp".getBytes(StandardCharsets.US_ASCII);
+	private static final int WHITESPACE = 0;
+	private static final int WORD = 1;
+	private static final int PUNCTUATION = 2;
+	private static final int TAG = 3;
+
+	/** Bytes aller Wörter hintereinander */
+	private byte[] bytes = new byte[1 << 16];
+	private int bytesLength;
+	/** Anfang, Länge, Hash und Anzahl je Wort, in der Reihenfolge des ersten Auftretens */
+	private int[] offset = new int[1 << 10];
+	private int[] length = new int[1 << 10];
+	private int[] hash = new int[1 << 10];
+	private int[] count = new int[1 << 10];
+	private int size;
+	/** Hash-Tabelle mit dem Index des Wortes + 1, 0 für einen freien Platz */
+	private int[] table = new int[1 << 11];
+	private ByteBuffer reusable = ByteBuffer.allocate(0);
+
+	/**
+	 * Zählt die Wörter der Datei. Ist die Datei kein gültiges UTF-8, wird nichts gezählt und
+	 * <code>false</code> zurückgeliefert.
+	 */
+	boolean count(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer buffer = read(channel, reusable);
+			if (! buffer.isDirect()) {
+				reusable = buffer;
+			}
+
+			if (! isValidUtf8(buffer)) {
+				return false;
+			}
+			scan(buffer);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Liest den Inhalt der Datei. Große Dateien werden eingeblendet, kleine in den übergebenen Puffer gelesen.
+	 * Ist der Puffer zu klein, wird ein neuer angelegt.
+	 */
+	static ByteBuffer read(FileChannel channel, ByteBuffer reusable) throws IOException {
+		long fileSize = channel.size();
+		if (fileSize >= MAP_THRESHOLD) {
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+		}
+
+		ByteBuffer buffer = reusable;
+		if (buffer.capacity() < fileSize) {
+			buffer = ByteBuffer.allocate(Math.max((int) fileSize, reusable.capacity() * 2));
+		}
+		buffer.clear();
+		while (buffer.position() < fileSize && channel.read(buffer) >= 0) {
+			// weiterlesen
+		}
+		buffer.flip();
+
+		return buffer;
+	}
+
+	/** Zerlegt den Inhalt in Token und zählt die Wörter */
+	void scan(ByteBuffer buffer) {
+		scan(buffer, (b, from, len) -> add(b, from, len, 1));
+	}
+
+	/** Empfänger für die Wörter beim Zerlegen */
+	interface WordConsumer {
+		void accept(ByteBuffer buffer, int from, int len);
+	}
+
+	/** Zerlegt den Inhalt in Token und übergibt die Wörter, ein '&amp;nbsp' am Ende ist bereits entfernt */
+	static void scan(ByteBuffer buffer, WordConsumer consumer) {
+		final int n = buffer.limit();
+		int state = WHITESPACE;
+		int tokenStart = 0;
+		boolean alphabetic = false;
+		int p = 0;
+		while (p < n) {
+			int b = buffer.get(p);
+			char ch;
+			int len;
+			if (b >= 0) {
+				ch = (char) b;
+				len = 1;
+			} else if ((b & 0xe0) == 0xc0) {
+				ch = (char) ((b & 0x1f) << 6 | buffer.get(p + 1) & 0x3f);
+				len = 2;
+			} else if ((b & 0xf0) == 0xe0) {
+				ch = (char) ((b & 0x0f) << 12 | (buffer.get(p + 1) & 0x3f) << 6 | buffer.get(p + 2) & 0x3f);
+				len = 3;
+			} else {
+				// Zeichen außerhalb der BMP bestehen aus zwei Surrogates, die wie Buchstaben behandelt werden
+				ch = Character.MIN_HIGH_SURROGATE;
+				len = 4;
+			}
+
+			int newState;
+			if (Character.isWhitespace(ch)) {
+				newState = WHITESPACE;
+			}
+			// Bindestriche, außer vor Großbuchstaben, werden ebenfalls wie Buchstaben behandelt
+			else if (TextUtils.isDash(ch) && isWordDash(buffer, p + len, state)) {
+				newState = WORD;
+			} else if (TextUtils.isPunctuation(ch)) {
+				newState = PUNCTUATION;
+			} else if (ch == '<' || ch == '/' || ch == '@' || ch == '>') {
+				newState = TAG;
+			} else {
+				newState = WORD;
+			}
+			if (state != newState) {
+				if (alphabetic) {
+					accept(consumer, buffer, tokenStart, p);
+				}
+				tokenStart = p;
+				alphabetic = Character.isAlphabetic(ch);
+			}
+			state = newState;
+			p += len;
+		}
+		if (alphabetic) {
+			accept(consumer, buffer, tokenStart, n);
+		}
+	}
+
+	/**
+	 * Ein Bindestrich gehört zum Wort, wenn er am Ende der Zeile auf ein Wort folgt oder vor einem Kleinbuchstaben
+	 * steht. Zeilen enden wie bei {@link java.io.BufferedReader#readLine()} mit '\n' oder '\r'.
+	 */
+	private static boolean isWordDash(ByteBuffer buffer, int next, int state) {
+		if (next >= buffer.limit()) {
+			return state == WORD;
+		}
+		int b = buffer.get(next);
+		if (b == '\n' || b == '\r') {
+			return state == WORD;
+		}
+		if (b >= 0) {
+			return Character.isLowerCase((char) b);
+		}
+		if ((b & 0xe0) == 0xc0) {
+			return Character.isLowerCase((char) ((b & 0x1f) << 6 | buffer.get(next + 1) & 0x3f));
+		}
+		if ((b & 0xf0) == 0xe0) {
+			return Character.isLowerCase((char) ((b & 0x0f) << 12 | (buffer.get(next + 1) & 0x3f) << 6
+					| buffer.get(next + 2) & 0x3f));
+		}
+
+		// High-Surrogate
+		return false;
+	}
+
+	/** Übergibt das Wort zwischen from und to, ein '&amp;nbsp' am Ende wird entfernt */
+	private static void accept(WordConsumer consumer, ByteBuffer buffer, int from, int to) {
+		if (endsWith(buffer, from, to, NBSP)) {
+			to -= NBSP.length;
+		}
+		consumer.accept(buffer, from, to - from);
+	}
+
+	/** Zählt ein Wort, z.B. aus einer Datei, die kein gültiges UTF-8 enthält */
+	void add(String word) {
+		byte[] b = word.getBytes(StandardCharsets.UTF_8);
+		add(ByteBuffer.wrap(b), 0, b.length, 1);
+	}
+
+	/** Übernimmt die Wörter und Häufigkeiten eines anderen Zählers */
+	void merge(WordCounter other) {
+		ByteBuffer buffer = ByteBuffer.wrap(other.bytes);
+		for (int index = 0; index < other.size; index++) {
+			add(buffer, other.offset[index], other.length[index], other.count[index]);
+		}
+	}
+
+	private void add(ByteBuffer buffer, int from, int len, int n) {
+		int h = hash(buffer, from, len);
+		int slot = find(buffer, from, len, h);
+		int entry = table[slot];
+		if (entry != 0) {
+			count[entry - 1] += n;
+			return;
+		}
+
+		// neues Wort
+		if (size == offset.length) {
+			int capacity = size * 2;
+			offset = Arrays.copyOf(offset, capacity);
+			length = Arrays.copyOf(length, capacity);
+			hash = Arrays.copyOf(hash, capacity);
+			count = Arrays.copyOf(count, capacity);
+		}
+		if (bytesLength + len > bytes.length) {
+			bytes = Arrays.copyOf(bytes, Math.max(bytesLength + len, bytes.length * 2));
+		}
+		for (int i = 0; i < len; i++) {
+			bytes[bytesLength + i] = buffer.get(from + i);
+		}
+		offset[size] = bytesLength;
+		length[size] = len;
+		hash[size] = h;
+		count[size] = n;
+		bytesLength += len;
+		table[slot] = ++size;
+
+		// höchstens zur Hälfte gefüllt
+		if (size * 2 > table.length) {
+			rehash();
+		}
+	}
+
+	private static int hash(ByteBuffer buffer, int from, int len) {
+		int h = 0x811c9dc5;
+		for (int i = from; i < from + len; i++) {
+			h = (h ^ buffer.get(i)) * 0x01000193;
+		}
+
+		return h ^ h >>> 16;
+	}
+
+	/** liefert den Platz des Wortes in der Hash-Tabelle bzw. den freien Platz, an dem es eingefügt wird */
+	private int find(ByteBuffer buffer, int from, int len, int h) {
+		int mask = table.length - 1;
+		int slot = h & mask;
+		for (int entry = table[slot]; entry != 0; entry = table[slot]) {
+			int index = entry - 1;
+			if (hash[index] == h && length[index] == len && equals(buffer, from, offset[index], len)) {
+				break;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		return slot;
+	}
+
+	private boolean equals(ByteBuffer buffer, int from, int wordOffset, int len) {
+		for (int i = 0; i < len; i++) {
+			if (buffer.get(from + i) != bytes[wordOffset + i]) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static boolean endsWith(ByteBuffer buffer, int from, int to, byte[] suffix) {
+		if (to - from < suffix.length) {
+			return false;
+		}
+		for (int i = 0; i < suffix.length; i++) {
+			if (buffer.get(to - suffix.length + i) != suffix[i]) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private void rehash() {
+		table = new int[table.length * 2];
+		int mask = table.length - 1;
+		for (int index = 0; index < size; index++) {
+			int slot = hash[index] & mask;
+			while (table[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			table[slot] = index + 1;
+		}
+	}
+
+	/** Anzahl der unterschiedlichen Wörter */
+	int size() {
+		return size;
+	}
+
+	/** ungefährer Speicherbedarf der Tabelle in Bytes */
+	long memory() {
+		return bytes.length + 16L * offset.length + 4L * table.length + 56L * size;
+	}
+
+	/** Entfernt alle Wörter und gibt den Speicher frei */
+	void clear() {
+		bytes = new byte[1 << 16];
+		bytesLength = 0;
+		offset = new int[1 << 10];
+		length = new int[1 << 10];
+		hash = new int[1 << 10];
+		count = new int[1 << 10];
+		size = 0;
+		table = new int[1 << 11];
+	}
+
+	/** Häufigkeit des Wortes */
+	int getCount(String word) {
+		int index = indexOf(word);
+
+		return index < 0 ? 0 : count[index];
+	}
+
+	/** Index des Wortes, -1 wenn es nicht enthalten ist */
+	int indexOf(String word) {
+		ByteBuffer buffer = ByteBuffer.wrap(word.getBytes(StandardCharsets.UTF_8));
+		return indexOf(buffer, 0, buffer.limit());
+	}
+
+	/** Index des Wortes, -1 wenn es nicht enthalten ist. Ändert die Tabelle nicht, kann also parallel verwendet werden. */
+	int indexOf(ByteBuffer buffer, int from, int len) {
+		return table[find(buffer, from, len, hash(buffer, from, len))] - 1;
+	}
+
+	/** das Wort mit dem angegebenen Index */
+	String word(int index) {
+		return new String(bytes, offset[index], length[index], StandardCharsets.UTF_8);
+	}
+
+	/** Häufigkeit des Wortes mit dem angegebenen Index */
+	int count(int index) {
+		return count[index];
+	}
+
+	/** Liefert die Indizes der Wörter, parallel sortiert nach dem Comparator */
+	int[] sorted(Comparator<String> comparator) {
+		String[] words = new String[size];
+		Arrays.parallelSetAll(words, this::word);
+		Integer[] indexes = new Integer[size];
+		Arrays.setAll(indexes, i -> i);
+		Arrays.parallelSort(indexes, (i1, i2) -> comparator.compare(words[i1], words[i2]));
+
+		return Arrays.stream(indexes).mapToInt(Integer::intValue).toArray();
+	}
+
+	/** Fügt die gezählten Wörter in der Reihenfolge ihres ersten Auftretens hinzu */
+	@SuppressWarnings("unchecked")
+	void addTo(Collection<String> words) {
+		for (int index = 0; index < size; index++) {
+			String word = word(index);
+			if (words instanceof Bag) {
+				((Bag<String>) words).add(word, count[index]);
+			} else {
+				for (int i = 0; i < count[index]; i++) {
+					words.add(word);
+				}
+			}
+		}
+	}
+
+	/** Prüft, ob der Inhalt gültiges UTF-8 ist (keine überlangen Sequenzen, keine Surrogates) */
+	static boolean isValidUtf8(ByteBuffer buffer) {
+		final int n = buffer.limit();
+		int p = 0;
+		while (p < n) {
+			int b = buffer.get(p) & 0xff;
+			if (b < 0x80) {
+				p++;
+				continue;
+			}
+			int len;
+			int min;
+			if (b >= 0xc2 && b <= 0xdf) {
+				len = 2;
+				min = 0x80;
+			} else if (b >= 0xe0 && b <= 0xef) {
+				len = 3;
+				min = 0x800;
+			} else if (b >= 0xf0 && b <= 0xf4) {
+				len = 4;
+				min = 0x10000;
+			} else {
+				return false;
+			}
+			if (p + len > n) {
+				return false;
+			}
+			int cp = b & (0x7f >> len);
+			for (int i = 1; i < len; i++) {
+				int c = buffer.get(p + i) & 0xff;
+				if ((c & 0xc0) != 0x80) {
+					return false;
+				}
+				cp = cp << 6 | c & 0x3f;
+			}
+			if (cp < min || cp > Character.MAX_CODE_POINT || cp >= 0xd800 && cp <= 0xdfff) {
+				return false;
+			}
+			p += len;
+		}
+
+		return true;
+	}
+}
@@ -0,0 +1,82 @@
+package org.github.cradloff.scanutils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.collections4.bag.HashBag;
+import org.apache.commons.collections4.bag.TreeBag;
+import org.github.cradloff.scanutils.PreProcess.Parameter;
+import org.junit.jupiter.api.Test;
+
+public class CandidateGeneratorTest {
+	@Test public void generators() {
+		assertEquals(List.of("default", "symspell", "skeleton", "automaton"), CandidateGenerators.names());
+		assertThrows(IllegalArgumentException.class, () -> CandidateGenerators.get("unbekannt"));
+
+		TreeBag<String> dict = new TreeBag<>(Arrays.asList("Wasser", "Schiff", "sein"));
+		LineProcessor lineProcessor = new LineProcessor(new Parameter(), new ArrayList<>(), new HashMap<>(), new DictionaryIndex(dict), new HashBag<>());
+		for (String name : CandidateGenerators.names()) {
+			CandidateGenerator generator = CandidateGenerators.get(name);
+			assertEquals(name, generator.name());
+			assertEquals("Wasser", generator.correct(lineProcessor, "Waffer", 4), name);
+			assertEquals("Erbsensuppe", generator.correct(lineProcessor, "Erbsensuppe", 4), name);
+		}
+	}
+
+	@Test public void parameter() {
+		assertEquals("default", new Parameter().getGenerator().name());
+		assertEquals("automaton", Parameter.parse(new String[] { "-engine=automaton" }).getGenerator().name());
+		assertEquals("default,symspell", Parameter.parse(new String[] { "-compare=default,symspell" }).getGenerator().name());
+		assertThrows(IllegalArgumentException.class, () -> Parameter.parse(new String[] { "-engine=unbekannt" }));
+		assertThrows(IllegalArgumentException.class, () -> Parameter.parse(new String[] { "-compare=default" }));
+		assertThrows(IllegalArgumentException.class, () -> Parameter.parse(new String[] { "-compare=default,unbekannt" }));
+	}
+
+	@Test public void compare() {
+		ComparingCandidateGenerator comparison = new ComparingCandidateGenerator(
+				new Fixed("eins", Map.of("Waffer", "Wasser", "Wafser", "Wasser", "Hais", "Haus")),
+				new Fixed("zwei", Map.of("Waffer", "Waffel", "Wafser", "Wasser")));
+		assertEquals("eins,zwei", comparison.name());
+		// übernommen wird das Ergebnis des ersten Verfahrens
+		assertEquals("Wasser", comparison.correct(null, "Waffer", 4));
+		assertEquals("Wasser", comparison.correct(null, "Wafser", 4));
+		assertEquals("Haus", comparison.correct(null, "Hais", 4));
+		assertEquals("Erbse", comparison.correct(null, "Erbse", 4));
+		assertEquals(2, comparison.differences());
+
+		StringWriter log = new StringWriter();
+		comparison.write(new PrintWriter(log, true));
+		assertEquals(String.format("# Wort\teins\tzwei%n" + "Hais\tHaus\tHais%n" + "Waffer\tWasser\tWaffel%n"), log.toString());
+		assertTrue(comparison.summary().startsWith("Vergleich: 4 Wörter, 2 Abweichungen, eins: "), comparison.summary());
+	}
+
+	/** liefert feste Ergebnisse, unbekannte Wörter bleiben unverändert */
+	private static class Fixed implements CandidateGenerator {
+		private final String name;
+		private final Map<String, String> results;
+
+		Fixed(String name, Map<String, String> results) {
+			this.name = name;
+			this.results = results;
+		}
+
+		@Override
+		public String name() {
+			return name;
+		}
+
+		@Override
+		public String correct(LineProcessor processor, String input, int level) {
+			return results.getOrDefault(input, input);
+		}
+	}
+}
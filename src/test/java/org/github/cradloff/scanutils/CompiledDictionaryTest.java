@@ -0,0 +1,80 @@
+package org.github.cradloff.scanutils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.apache.commons.collections4.Bag;
+import org.apache.commons.collections4.bag.HashBag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CompiledDictionaryTest {
+	@TempDir File tempDir;
+
+	@Test public void writeAndRead() throws IOException {
+		Bag<String> dict = new HashBag<>(List.of("Haus", "Hausboot", "Häuser", "O’Hara", "über", "x"));
+		dict.add("und", 1_000_000);
+		File bin = new File(tempDir, "german.dic.bin");
+		CompiledDictionary.write(bin, dict);
+
+		Bag<String> actual = CompiledDictionary.read(bin);
+		assertEquals(dict, actual);
+		assertEquals(1_000_000, actual.getCount("und"));
+	}
+
+	@Test public void readDict() throws IOException {
+		File dic = new File(tempDir, "german.dic");
+		Files.writeString(dic.toPath(), "Haus\t3\nBoot\n");
+		assertFalse(CompiledDictionary.isUpToDate(dic));
+
+		// kompilierte Fassung wird verwendet, wenn sie aktuell ist
+		Bag<String> compiled = new HashBag<>(List.of("Haus", "Boot", "Floß"));
+		CompiledDictionary.write(CompiledDictionary.compiledFile(dic), compiled);
+		assertTrue(CompiledDictionary.isUpToDate(dic));
+		assertEquals(compiled, FileAccess.readDict(dic));
+
+		// ist die Text-Datei neuer, wird diese verwendet
+		dic.setLastModified(CompiledDictionary.compiledFile(dic).lastModified() + 1000);
+		assertFalse(CompiledDictionary.isUpToDate(dic));
+		Bag<String> text = FileAccess.readDict(dic);
+		assertEquals(3, text.getCount("Haus"));
+		assertEquals(1, text.getCount("Boot"));
+		assertFalse(text.contains("Floß"));
+	}
+
+	@Test public void checksum() throws IOException {
+		File bin = new File(tempDir, "german.dic.bin");
+		CompiledDictionary.write(bin, new HashBag<>(List.of("Haus", "Boot")));
+		try (RandomAccessFile file = new RandomAccessFile(bin, "rw")) {
+			file.seek(file.length() - 1);
+			file.write(42);
+		}
+
+		assertThrows(IOException.class, () -> CompiledDictionary.read(bin));
+	}
+
+	@Test public void entryCount() throws IOException {
+		File dic = new File(tempDir, "german.dic");
+		Files.writeString(dic.toPath(), "Haus\t3\nBoot\n");
+		File bin = CompiledDictionary.compiledFile(dic);
+		CompiledDictionary.write(bin, new HashBag<>(List.of("Haus", "Boot")));
+		// die Anzahl der Einträge ist durch die Prüfsumme abgesichert
+		try (RandomAccessFile file = new RandomAccessFile(bin, "rw")) {
+			file.seek(8);
+			file.writeInt(3);
+		}
+		assertThrows(IOException.class, () -> CompiledDictionary.read(bin));
+
+		// bei einer beschädigten Datei wird die Text-Datei verwendet
+		bin.setLastModified(dic.lastModified() + 1000);
+		assertEquals(3, FileAccess.readDict(dic).getCount("Haus"));
+	}
+}
@@ -0,0 +1,137 @@
+package org.github.cradloff.scanutils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.apache.commons.collections4.Bag;
+import org.apache.commons.collections4.bag.HashBag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CorrectionCacheFileTest {
+	@TempDir File tempDir;
+
+	@Test public void persist() throws IOException {
+		File file = new File(tempDir, CorrectionCacheFile.FILENAME);
+		CorrectionCache cache = new CorrectionCache();
+		try (CorrectionCacheFile cacheFile = CorrectionCacheFile.open(file, "abc", cache, 6)) {
+			assertEquals(0, cacheFile.loaded());
+			cache.get("Waffer", 6, token -> "Wasser");
+			cache.get("Haus", 6, Function.identity());
+		}
+		assertEquals(List.of("abc\tWaffer\tWasser", "abc\tHaus\tHaus"), Files.readAllLines(file.toPath()));
+
+		// im nächsten Lauf werden die Einträge geladen
+		cache = new CorrectionCache();
+		try (CorrectionCacheFile cacheFile = CorrectionCacheFile.open(file, "abc", cache, 6)) {
+			assertEquals(2, cacheFile.loaded());
+			assertEquals("Wasser", cache.get("Waffer", 6, token -> token));
+			assertEquals(1, cache.hits());
+		}
+
+		// bei geändertem Fingerabdruck nicht, die veralteten Einträge werden entfernt
+		cache = new CorrectionCache();
+		try (CorrectionCacheFile cacheFile = CorrectionCacheFile.open(file, "def", cache, 6)) {
+			assertEquals(0, cacheFile.loaded());
+			assertEquals("Waffer", cache.get("Waffer", 6, token -> token));
+		}
+		assertEquals(List.of("def\tWaffer\tWaffer"), Files.readAllLines(file.toPath()));
+	}
+
+	/** Einträge, die nicht in den Cache passen, werden trotzdem nicht erneut gesucht oder angehängt */
+	@Test public void largerThanCache() throws IOException {
+		File file = new File(tempDir, CorrectionCacheFile.FILENAME);
+		CorrectionCache cache = new CorrectionCache(16);
+		try (CorrectionCacheFile cacheFile = CorrectionCacheFile.open(file, "abc", cache, 6)) {
+			for (int i = 0; i < 1_000; i++) {
+				cache.get("Wort" + i, 6, token -> token + "!");
+			}
+			// auch aus dem Cache verdrängte Wörter werden nur einmal angehängt
+			assertEquals("Wort0!", cache.get("Wort0", 6, token -> { throw new AssertionError(token); }));
+		}
+		assertEquals(1_000, Files.readAllLines(file.toPath()).size());
+
+		cache = new CorrectionCache(16);
+		try (CorrectionCacheFile cacheFile = CorrectionCacheFile.open(file, "abc", cache, 6)) {
+			assertEquals(1_000, cacheFile.loaded());
+			for (int i = 0; i < 1_000; i++) {
+				assertEquals("Wort" + i + "!", cache.get("Wort" + i, 6, token -> { throw new AssertionError(token); }));
+			}
+			assertEquals(1_000, cache.hits());
+			// für eine andere Suchtiefe gelten die Einträge nicht
+			assertEquals("Wort0?", cache.get("Wort0", 5, token -> token + "?"));
+		}
+		assertEquals(1_000, Files.readAllLines(file.toPath()).size());
+	}
+
+	/** Speicherbedarf und Dateigröße bleiben auch bei langen Läufen begrenzt */
+	@Test public void bounded() throws IOException {
+		File file = new File(tempDir, CorrectionCacheFile.FILENAME);
+		CorrectionCache cache = new CorrectionCache(16);
+		int lines;
+		try (CorrectionCacheFile cacheFile = CorrectionCacheFile.open(file, "abc", cache, 6, 100)) {
+			for (int i = 0; i < 1_000; i++) {
+				cache.get("Wort" + i, 6, token -> token + "!");
+				assertTrue(cacheFile.lines() <= 200, () -> "Zeilen: " + cacheFile.lines());
+			}
+			lines = cacheFile.lines();
+		}
+		assertEquals(lines, Files.readAllLines(file.toPath()).size());
+
+		// die zuletzt angehängten Einträge sind noch vorhanden
+		cache = new CorrectionCache(16);
+		try (CorrectionCacheFile cacheFile = CorrectionCacheFile.open(file, "abc", cache, 6, 100)) {
+			assertEquals(100, cacheFile.loaded());
+			for (int i = 900; i < 1_000; i++) {
+				assertEquals("Wort" + i + "!", cache.get("Wort" + i, 6, token -> { throw new AssertionError(token); }));
+			}
+			// verdrängte Einträge werden erneut gesucht
+			assertEquals("Wort0?", cache.get("Wort0", 6, token -> token + "?"));
+		}
+	}
+
+	/** die unvollständige letzte Zeile eines abgebrochenen Laufs wird nicht verwendet und entfernt */
+	@Test public void truncated() throws IOException {
+		File file = new File(tempDir, CorrectionCacheFile.FILENAME);
+		Files.writeString(file.toPath(), "abc\tHaus\tHaus\nabc\tWaffer\t");
+		CorrectionCache cache = new CorrectionCache();
+		try (CorrectionCacheFile cacheFile = CorrectionCacheFile.open(file, "abc", cache, 6)) {
+			assertEquals(1, cacheFile.loaded());
+			assertEquals("Wasser", cache.get("Waffer", 6, token -> "Wasser"));
+			assertEquals(0, cache.hits());
+		}
+		assertEquals(List.of("abc\tHaus\tHaus", "abc\tWaffer\tWasser"), Files.readAllLines(file.toPath()));
+
+		// auch eine einzelne unvollständige Zeile
+		Files.writeString(file.toPath(), "abc\tWaf");
+		cache = new CorrectionCache();
+		try (CorrectionCacheFile cacheFile = CorrectionCacheFile.open(file, "abc", cache, 6)) {
+			assertEquals(0, cacheFile.loaded());
+			cache.get("Haus", 6, Function.identity());
+		}
+		assertEquals(List.of("abc\tHaus\tHaus"), Files.readAllLines(file.toPath()));
+	}
+
+	@Test public void fingerprint() {
+		Bag<String> dict = new HashBag<>(List.of("Haus", "Boot"));
+		Bag<String> silben = new HashBag<>(List.of("ung"));
+		Map<String, String> map = Map.of("Waffer", "Wasser");
+		String fingerprint = CorrectionCacheFile.fingerprint(dict, map, silben, 6, "default");
+		assertEquals(fingerprint, CorrectionCacheFile.fingerprint(new HashBag<>(List.of("Boot", "Haus")), map, silben, 6, "default"));
+
+		assertNotEquals(fingerprint, CorrectionCacheFile.fingerprint(dict, map, silben, 5, "default"));
+		assertNotEquals(fingerprint, CorrectionCacheFile.fingerprint(dict, Map.of(), silben, 6, "default"));
+		assertNotEquals(fingerprint, CorrectionCacheFile.fingerprint(dict, map, new HashBag<>(), 6, "default"));
+		assertNotEquals(fingerprint, CorrectionCacheFile.fingerprint(dict, map, silben, 6, "symspell"));
+		dict.add("Haus");
+		assertNotEquals(fingerprint, CorrectionCacheFile.fingerprint(dict, map, silben, 6, "default"));
+	}
+}
@@ -0,0 +1,43 @@
+package org.github.cradloff.scanutils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+public class CorrectionCacheTest {
+	@Test public void cache() {
+		CorrectionCache cache = new CorrectionCache();
+		AtomicInteger calls = new AtomicInteger();
+		Function<String, String> correction = token -> {
+			calls.incrementAndGet();
+			return token.replace("ff", "ss");
+		};
+
+		assertEquals("Wasser", cache.get("Waffer", 6, correction));
+		assertEquals("Wasser", cache.get("Waffer", 6, correction));
+		// auch Wörter ohne Korrektur werden gemerkt
+		assertEquals("Haus", cache.get("Haus", 6, correction));
+		assertEquals("Haus", cache.get("Haus", 6, correction));
+		assertEquals(2, calls.get());
+		// die Suchtiefe ist Teil des Schlüssels
+		assertEquals("Wasser", cache.get("Waffer", 4, correction));
+		assertEquals(3, calls.get());
+
+		assertEquals(2, cache.hits());
+		assertEquals(3, cache.misses());
+		assertEquals(40.0, cache.hitRate(), 0.001);
+		assertEquals(3, cache.size());
+	}
+
+	@Test public void maxSize() {
+		CorrectionCache cache = new CorrectionCache(32);
+		for (int i = 0; i < 1_000; i++) {
+			cache.get("Wort" + i, 6, Function.identity());
+		}
+		assertEquals(1_000, cache.misses());
+		assertEquals(32, cache.size(), 16);
+	}
+}
@@ -0,0 +1,64 @@
+package org.github.cradloff.scanutils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.apache.commons.collections4.Bag;
+import org.apache.commons.collections4.bag.HashBag;
+import org.junit.jupiter.api.Test;
+
+public class DictionaryTrieTest {
+	@Test public void trie() {
+		Bag<String> dict = new HashBag<>(List.of("Haus", "Haus", "Hausboot", "Hase", "hat", "O’Hara", "über"));
+		DictionaryTrie trie = new DictionaryTrie(dict);
+
+		for (String word : dict.uniqueSet()) {
+			assertTrue(trie.contains(word), word);
+		}
+		assertFalse(trie.contains(""));
+		assertFalse(trie.contains("Hau"));
+		assertFalse(trie.contains("Hausbo"));
+		assertFalse(trie.contains("Hausboote"));
+		assertFalse(trie.contains("haus"));
+
+		assertEquals(2, trie.count(trie.walk(DictionaryTrie.ROOT, "Haus")));
+		assertEquals(1, trie.count(trie.walk(DictionaryTrie.ROOT, "Hausboot")));
+		assertEquals(0, trie.count(trie.walk(DictionaryTrie.ROOT, "Ha")));
+		assertEquals(-1, trie.walk(DictionaryTrie.ROOT, "Hx"));
+
+		// die Kinder sind sortiert
+		int node = trie.walk(DictionaryTrie.ROOT, "Ha");
+		StringBuilder children = new StringBuilder();
+		for (int i = trie.firstChild(node); i < trie.endChild(node); i++) {
+			children.append(trie.label(i));
+		}
+		assertEquals("su", children.toString());
+	}
+
+	@Test public void maxCount() {
+		Bag<String> dict = new HashBag<>(List.of("Hausboot", "hat"));
+		dict.add("Haus", 5);
+		dict.add("haus", 20);
+		dict.add("Hase", 3);
+		DictionaryTrie trie = new DictionaryTrie(dict);
+
+		// die Häufigkeit von "haus" zählt auch für "Haus"
+		assertEquals(20, trie.maxCount(DictionaryTrie.ROOT));
+		assertEquals(20, trie.maxCount(trie.walk(DictionaryTrie.ROOT, "Ha")));
+		assertEquals(20, trie.maxCount(trie.walk(DictionaryTrie.ROOT, "Haus")));
+		assertEquals(1, trie.maxCount(trie.walk(DictionaryTrie.ROOT, "Hausb")));
+		assertEquals(3, trie.maxCount(trie.walk(DictionaryTrie.ROOT, "Has")));
+		assertEquals(1, trie.maxCount(trie.walk(DictionaryTrie.ROOT, "hat")));
+		assertEquals(0, trie.maxCount(-1));
+	}
+
+	@Test public void empty() {
+		DictionaryTrie trie = new DictionaryTrie(new HashBag<>());
+		assertEquals(1, trie.size());
+		assertFalse(trie.contains(""));
+		assertFalse(trie.contains("a"));
+	}
+}
@@ -0,0 +1,128 @@
+package org.github.cradloff.scanutils;
+
+import static org.github.cradloff.scanutils.RandomStrings.randomString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.apache.commons.collections4.Bag;
+import org.apache.commons.collections4.bag.HashBag;
+import org.junit.jupiter.api.Test;
+
+public class LevenshteinAutomatonTest {
+	@Test public void search() {
+		Bag<String> dict = new HashBag<>(List.of("Wasser", "Waffel", "gern", "gar"));
+		dict.add("sein", 100);
+		DictionaryTrie trie = new DictionaryTrie(dict);
+
+		// eine beliebige Änderung kostet zwei, eine Vertauschung eins
+		LevenshteinAutomaton automaton = new LevenshteinAutomaton("Waffer");
+		assertEquals("Waffel", automaton.search(trie, 2));
+		assertEquals(2, automaton.bestScore());
+		automaton = new LevenshteinAutomaton("Waffer");
+		automaton.similar(2, 2, "ss");
+		assertEquals("Wasser", automaton.search(trie, 2));
+		assertEquals(1, automaton.bestScore());
+
+		// Gruppen mit unterschiedlicher Länge
+		automaton = new LevenshteinAutomaton("gem");
+		automaton.similar(2, 1, "rn");
+		assertEquals("gern", automaton.search(trie, 1));
+
+		// die Schreibweise des ersten Zeichens ist egal, häufige Wörter erhalten einen Bonus
+		automaton = new LevenshteinAutomaton("Sejn");
+		assertEquals("sein", automaton.search(trie, 2));
+		assertEquals(2 - 2 * 1, automaton.bestScore());
+
+		automaton = new LevenshteinAutomaton("Erbsensuppe");
+		assertNull(automaton.search(trie, 4));
+	}
+
+	/** Vergleich mit der Berechnung für jedes einzelne Wort */
+	@Test public void random() {
+		Random random = new Random(4711);
+		String alphabet = "abcdeABäß";
+		Bag<String> dict = new HashBag<>();
+		for (int i = 0; i < 500; i++) {
+			dict.add(randomString(random, alphabet, 1 + random.nextInt(8)), 1 + random.nextInt(random.nextBoolean() ? 5 : 500));
+		}
+		DictionaryTrie trie = new DictionaryTrie(dict);
+		List<String> words = new ArrayList<>(new TreeSet<>(dict.uniqueSet()));
+
+		for (int k = 0; k < 1_000; k++) {
+			String input = randomString(random, alphabet, 1 + random.nextInt(8));
+			List<int[]> similar = new ArrayList<>();
+			List<String> replacements = new ArrayList<>();
+			LevenshteinAutomaton automaton = new LevenshteinAutomaton(input);
+			for (int j = random.nextInt(4); j > 0; j--) {
+				int start = random.nextInt(input.length());
+				int length = 1 + random.nextInt(Math.min(2, input.length() - start));
+				String replacement = randomString(random, alphabet, random.nextInt(3));
+				automaton.similar(start, length, replacement);
+				similar.add(new int[] { start, length });
+				replacements.add(replacement);
+			}
+			int maxCost = random.nextInt(6);
+
+			// erwartetes Ergebnis: das Wort mit der besten Bewertung
+			String expected = null;
+			int expectedScore = Integer.MAX_VALUE;
+			int expectedCount = 0;
+			for (String word : words) {
+				int cost = cost(input, word, similar, replacements);
+				if (cost > maxCost) {
+					continue;
+				}
+				int count = dict.getCount(word);
+				int score = cost - LevenshteinAutomaton.EDIT_COST * LevenshteinAutomaton.bonus(word.length(), count);
+				if (score < expectedScore || score == expectedScore && (count > expectedCount
+						|| count == expectedCount && word.charAt(0) == input.charAt(0) && expected.charAt(0) != input.charAt(0))) {
+					expected = word;
+					expectedScore = score;
+					expectedCount = count;
+				}
+			}
+
+			assertEquals(expected, automaton.search(trie, maxCost), input + " " + maxCost);
+			assertEquals(expectedScore, automaton.bestScore());
+		}
+	}
+
+	/** gewichteter Abstand mit vollständiger Tabelle */
+	private static int cost(String input, String word, List<int[]> similar, List<String> replacements) {
+		int n = input.length();
+		int[][] d = new int[word.length() + 1][n + 1];
+		for (int depth = 0; depth <= word.length(); depth++) {
+			for (int i = 0; i <= n; i++) {
+				int cost = depth == 0 && i == 0 ? 0 : Integer.MAX_VALUE / 2;
+				if (depth > 0) {
+					cost = Math.min(cost, d[depth - 1][i] + LevenshteinAutomaton.EDIT_COST);
+				}
+				if (i > 0) {
+					cost = Math.min(cost, d[depth][i - 1] + LevenshteinAutomaton.EDIT_COST);
+				}
+				if (depth > 0 && i > 0) {
+					char c = input.charAt(i - 1);
+					char ch = word.charAt(depth - 1);
+					boolean match = c == ch || i == 1 && (Character.toUpperCase(c) == ch || Character.toLowerCase(c) == ch);
+					cost = Math.min(cost, d[depth - 1][i - 1] + (match ? 0 : LevenshteinAutomaton.EDIT_COST));
+				}
+				for (int t = 0; t < similar.size(); t++) {
+					int start = similar.get(t)[0];
+					int length = similar.get(t)[1];
+					String replacement = replacements.get(t);
+					if (start + length == i && word.substring(0, depth).endsWith(replacement)) {
+						cost = Math.min(cost, d[depth - replacement.length()][start] + LevenshteinAutomaton.SIMILAR_COST);
+					}
+				}
+				d[depth][i] = cost;
+			}
+		}
+
+		return d[word.length()][n];
+	}
+}
@@ -0,0 +1,82 @@
+package org.github.cradloff.scanutils;
+
+import static org.github.cradloff.scanutils.RandomStrings.randomString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class LevenshteinDistanceTest {
+	@Test public void compare() {
+		assertEquals(0, LevenshteinDistance.compare("", ""));
+		assertEquals(1, LevenshteinDistance.compare("", "a"));
+		assertEquals(7, LevenshteinDistance.compare("aaapppp", ""));
+		assertEquals(1, LevenshteinDistance.compare("frog", "fog"));
+		assertEquals(3, LevenshteinDistance.compare("fly", "ant"));
+		assertEquals(7, LevenshteinDistance.compare("elephant", "hippo"));
+		assertEquals(7, LevenshteinDistance.compare("hippo", "elephant"));
+		assertEquals(8, LevenshteinDistance.compare("hippo", "zzzzzzzz"));
+		assertEquals(1, LevenshteinDistance.compare("hello", "hallo"));
+		assertEquals(2, LevenshteinDistance.compare("Straße", "Strasse"));
+		assertEquals(1, LevenshteinDistance.compare("ſein", "sein"));
+	}
+
+	@Test public void threshold() {
+		assertEquals(1, LevenshteinDistance.compare("frog", "fog", 1));
+		assertEquals(-1, LevenshteinDistance.compare("fly", "ant", 2));
+		assertEquals(3, LevenshteinDistance.compare("fly", "ant", 3));
+		assertEquals(7, LevenshteinDistance.compare("elephant", "hippo", 7));
+		assertEquals(-1, LevenshteinDistance.compare("elephant", "hippo", 6));
+		assertEquals(-1, LevenshteinDistance.compare("", "abc", 2));
+		assertEquals(0, LevenshteinDistance.compare("Haus", "Haus", 0));
+		assertEquals(-1, LevenshteinDistance.compare("Haus", "Maus", 0));
+	}
+
+	/** Vergleich mit der vollständigen Tabelle, auch für Wörter mit mehr als 64 Zeichen */
+	@Test public void random() {
+		Random random = new Random(4711);
+		String alphabet = "abcdeäöüßſāł";
+		for (int k = 0; k < 5_000; k++) {
+			String left = randomString(random, alphabet, random.nextInt(k % 10 == 0 ? 100 : 15));
+			String right = mutate(random, alphabet, left);
+			int expected = reference(left, right);
+			assertEquals(expected, LevenshteinDistance.compare(left, right), left + "/" + right);
+			int threshold = random.nextInt(expected + 3);
+			assertEquals(expected <= threshold ? expected : -1, LevenshteinDistance.compare(left, right, threshold),
+					left + "/" + right + "/" + threshold);
+		}
+	}
+
+	private static String mutate(Random random, String alphabet, String s) {
+		StringBuilder sb = new StringBuilder(s);
+		int changes = random.nextInt(6);
+		for (int i = 0; i < changes; i++) {
+			int pos = random.nextInt(sb.length() + 1);
+			char ch = alphabet.charAt(random.nextInt(alphabet.length()));
+			switch (random.nextInt(3)) {
+			case 0: sb.insert(pos, ch); break;
+			case 1: if (pos < sb.length()) sb.deleteCharAt(pos); break;
+			default: if (pos < sb.length()) sb.setCharAt(pos, ch); break;
+			}
+		}
+
+		return sb.toString();
+	}
+
+	private static int reference(String left, String right) {
+		int[][] d = new int[left.length() + 1][right.length() + 1];
+		for (int i = 0; i <= left.length(); i++) {
+			for (int j = 0; j <= right.length(); j++) {
+				if (i == 0 || j == 0) {
+					d[i][j] = i + j;
+				} else {
+					int cost = left.charAt(i - 1) == right.charAt(j - 1) ? 0 : 1;
+					d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+				}
+			}
+		}
+
+		return d[left.length()][right.length()];
+	}
+}
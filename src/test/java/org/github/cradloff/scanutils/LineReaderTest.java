@@ -95,4 +95,50 @@ public class LineReaderTest {
 
 		assertFalse(lineReader.readLine());
 	}
+
+	@Test public void addAndSwap() throws IOException {
+		assertTrue(lineReader.readLine());
+		lineReader.add(Arrays.asList("neu"));
+		assertEquals(Arrays.asList("eins"), lineReader.current());
+		assertEquals(Arrays.asList("neu"), lineReader.next());
+		assertEquals(Arrays.asList("zwei"), lineReader.next(2));
+		assertEquals(Arrays.asList("drei"), lineReader.next(3));
+
+		lineReader.swap(0, 1);
+		assertEquals(Arrays.asList("neu"), lineReader.current());
+		assertEquals(Arrays.asList("eins"), lineReader.next());
+
+		assertTrue(lineReader.readLine());
+		assertEquals(Arrays.asList("neu"), lineReader.prev());
+		assertEquals(Arrays.asList("eins"), lineReader.current());
+		assertEquals(Arrays.asList("zwei"), lineReader.next());
+	}
+
+	/** größere Fenster und viele eingefügte Zeilen vergrößern den Puffer */
+	@Test public void largeContext() throws IOException {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			sb.append("z").append(i).append('\n');
+		}
+		LineReader reader = new LineReader(new StringReader(sb.toString()), 5, 20);
+		for (int i = 0; i < 100; i++) {
+			assertTrue(reader.readLine());
+			assertEquals(Arrays.asList("z" + i), reader.current());
+			assertEquals(i >= 5 ? Arrays.asList("z" + (i - 5)) : LineReader.EOF, reader.prev(5));
+			assertEquals(i < 80 ? Arrays.asList("z" + (i + 20)) : LineReader.EOF, reader.next(20));
+			assertEquals(i < 99, reader.hasNext());
+		}
+		assertFalse(reader.readLine());
+
+		reader = new LineReader(new StringReader("a\nb\n"), 1, 1);
+		assertTrue(reader.readLine());
+		for (int i = 0; i < 50; i++) {
+			reader.add(Arrays.asList("x" + i));
+		}
+		assertEquals(Arrays.asList("a"), reader.current());
+		assertEquals(Arrays.asList("x49"), reader.next());
+		assertEquals(Arrays.asList("x0"), reader.next(50));
+		assertEquals(Arrays.asList("b"), reader.next(51));
+		assertSame(LineReader.EOF, reader.next(52));
+	}
 }
@@ -1,6 +1,8 @@
 package org.github.cradloff.scanutils;
 
+import static org.github.cradloff.scanutils.RandomStrings.randomString;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.*;
 import java.util.*;
@@ -155,7 +157,7 @@ public class PreProcessTest {
 	private void checkReplaceQuotes(String line, String expectedLine) {
 		TreeBag<String> dict = new TreeBag<>();
 		List<String> tokens = TextUtils.split(line);
-		LineProcessor lineProcessor = new LineProcessor(new Parameter(), tokens, new HashMap<>(), dict, TextUtils.inverse(dict), new TreeSet<>(dict.uniqueSet()), new HashBag<>());
+		LineProcessor lineProcessor = new LineProcessor(new Parameter(), tokens, new HashMap<>(), new DictionaryIndex(dict), new HashBag<>());
 		for (int i = 0; i < tokens.size(); i++) {
 			String token = lineProcessor.changeQuotes(tokens.get(i), i);
 			tokens.set(i, token);
@@ -172,7 +174,7 @@ public class PreProcessTest {
 		dict.add("dann", 1000);
 		dict.add("Dann");
 		dict.add("Damm", 10);
-		LineProcessor lineProcessor = new LineProcessor(new Parameter(), line, new HashMap<>(), dict, TextUtils.inverse(dict), new TreeSet<>(dict.uniqueSet()), new HashBag<>());
+		LineProcessor lineProcessor = new LineProcessor(new Parameter(), line, new HashMap<>(), new DictionaryIndex(dict), new HashBag<>());
 		// gibt es keine passende Ersetzung, wird das Wort wieder zurückgeliefert
 		checkReplaceCharacters("Erbsensuppe", "Erbsensuppe", lineProcessor);
 
@@ -206,6 +208,114 @@ public class PreProcessTest {
 		checkReplaceCharacters("Danu", "Dann", lineProcessor);
 	}
 
+	@Test public void testSymSpell() {
+		TreeBag<String> dict = new TreeBag<>(Arrays.asList("Schiff", "worauf", "Deck", "Verbrecher", "sein", "sein", "fein"));
+		dict.add("voraus", 10);
+		dict.add("dann", 1000);
+		dict.add("Dann");
+		Parameter params = Parameter.parse(new String[] { "-engine=symspell" });
+		assertEquals(LineProcessor.ENGINE_SYMSPELL, params.getEngine());
+		LineProcessor lineProcessor = new LineProcessor(params, new ArrayList<>(), new HashMap<>(), new DictionaryIndex(dict), new HashBag<>());
+		// gibt es keine passende Ersetzung, wird das Wort wieder zurückgeliefert
+		assertEquals("Erbsensuppe", lineProcessor.symSpell("Erbsensuppe", 2));
+		assertEquals("Schiff", lineProcessor.symSpell("5chiff", 2));
+		assertEquals("Deck", lineProcessor.symSpell("Vech", 2));
+		assertEquals("Verbrecher", lineProcessor.symSpell("Verbreeher", 2));
+		// auch Einfügungen und Löschungen werden gefunden
+		assertEquals("Verbrecher", lineProcessor.symSpell("Verhrecer", 2));
+		assertEquals("voraus", lineProcessor.symSpell("vorauss", 2));
+		// es gelten dieselben Regeln wie bei replaceCharacters
+		assertEquals("sein", lineProcessor.symSpell("jein", 2));
+		assertEquals("Dann", lineProcessor.symSpell("Danu", 2));
+		// nicht mehr Abweichungen als angegeben
+		assertEquals("Vech", lineProcessor.symSpell("Vech", 1));
+
+		// die Verarbeitung der Zeile verwendet den SymSpell-Index
+		List<String> line = TextUtils.split("Schif sein");
+		LineProcessor.Result result = new LineProcessor(params, line, new HashMap<>(), new DictionaryIndex(dict), new HashBag<>()).call();
+		assertEquals("Schiff sein", result.line().toString());
+	}
+
+	@Test public void testSkeleton() {
+		TreeBag<String> dict = new TreeBag<>(Arrays.asList("Schiff", "Deck", "Verbrecher", "gern", "Wasser", "sein", "sein", "fein"));
+		Parameter params = Parameter.parse(new String[] { "-engine=skeleton" });
+		LineProcessor lineProcessor = new LineProcessor(params, new ArrayList<>(), new HashMap<>(), new DictionaryIndex(dict), new HashBag<>());
+		assertEquals("Erbsensuppe", lineProcessor.skeleton("Erbsensuppe", 5));
+		assertEquals("Wasser", lineProcessor.skeleton("Waffer", 5));
+		assertEquals("gern", lineProcessor.skeleton("gem", 2));
+		assertEquals("Schiff", lineProcessor.skeleton("Sckiff", 5));
+		// "sein" ist häufiger als "fein"
+		assertEquals("sein", lineProcessor.skeleton("jein", 5));
+		// ohne Treffer im Index wird wie bisher gesucht
+		assertEquals("Deck", lineProcessor.skeleton("Vech", 5));
+		assertEquals("Verbrecher", lineProcessor.skeleton("Derhrecler", 5));
+
+		List<String> line = TextUtils.split("Waffer sein");
+		LineProcessor.Result result = new LineProcessor(params, line, new HashMap<>(), new DictionaryIndex(dict), new HashBag<>()).call();
+		assertEquals("Wasser sein", result.line().toString());
+	}
+
+	@Test public void testAutomaton() {
+		TreeBag<String> dict = new TreeBag<>(Arrays.asList("Schiff", "worauf", "Deck", "Verbrecher", "Zimmer", "sein", "sein", "fein", "Backenmuskulatur", "O’Hara"));
+		dict.add("voraus", 10);
+		dict.add("dann", 1000);
+		dict.add("Dann");
+		dict.add("Damm", 10);
+		Parameter params = Parameter.parse(new String[] { "-engine=automaton" });
+		LineProcessor lineProcessor = new LineProcessor(params, new ArrayList<>(), new HashMap<>(), new DictionaryIndex(dict), new HashBag<>());
+		assertEquals("Erbsensuppe", lineProcessor.automaton("Erbsensuppe", 5));
+		assertEquals("Schiff", lineProcessor.automaton("5ehiss", 5));
+		assertEquals("Schiff", lineProcessor.automaton("$ehiss", 5));
+		assertEquals("Deck", lineProcessor.automaton("Vech", 5));
+		assertEquals("Zimmer", lineProcessor.automaton("3innner", 5));
+		assertEquals("O’Hara", lineProcessor.automaton("0’Hgrg", 5));
+		assertEquals("sein", lineProcessor.automaton("scin", 5));
+		assertEquals("fein", lineProcessor.automaton("fcin", 5));
+		assertEquals("sein", lineProcessor.automaton("jein", 5));
+		assertEquals("dann", lineProcessor.automaton("danu", 5));
+		assertEquals("Dann", lineProcessor.automaton("Danu", 5));
+		// beliebige Änderungen kosten doppelt so viel wie Vertauschungen
+		assertEquals("Verbrecher", lineProcessor.automaton("Verbrecxer", 2));
+		assertEquals("Verbrecxer", lineProcessor.automaton("Verbrecxer", 1));
+	}
+
+	/** Kandidaten, die nicht im Wörterbuch stehen (z.B. aus den Rechtschreibkorrekturen), gewinnen immer */
+	@Test public void testUnknownCandidate() {
+		Bag<String> dict = new HashBag<>();
+		dict.add("Es", 10);
+		dict.add("Rest", 1000);
+		Map<String, String> map = Map.of("Dest", "Rest");
+		List<String> line = new ArrayList<>(List.of("DEst"));
+		LineProcessor.Result result = new LineProcessor(new Parameter(), line, map, new DictionaryIndex(dict), new HashBag<>()).call();
+		assertEquals("Es!", result.line().toString());
+	}
+
+	/** Das Abschneiden von Teilbäumen darf das Ergebnis nicht verändern */
+	@Test public void testReplaceCharactersExhaustive() {
+		Random random = new Random(4711);
+		String alphabet = "aefsßmnrcoiülhtHSFWV-";
+		TreeBag<String> dict = new TreeBag<>();
+		for (int i = 0; i < 400; i++) {
+			dict.add(randomString(random, alphabet, 2 + random.nextInt(7)), 1 + random.nextInt(random.nextBoolean() ? 5 : 2_000));
+		}
+		// dieselben Wörter in unterschiedlicher Schreibweise
+		for (String word : new ArrayList<>(dict.uniqueSet()).subList(0, 100)) {
+			dict.add(word.toUpperCase(), 1 + random.nextInt(100));
+		}
+		List<String> words = new ArrayList<>(dict.uniqueSet());
+		LineProcessor lineProcessor = new LineProcessor(new Parameter(), new ArrayList<>(), new HashMap<>(), new DictionaryIndex(dict), new HashBag<>());
+
+		for (int i = 0; i < 1_000; i++) {
+			StringBuilder sb = new StringBuilder(words.get(random.nextInt(words.size())));
+			for (int j = random.nextInt(4); j > 0; j--) {
+				sb.setCharAt(random.nextInt(sb.length()), alphabet.charAt(random.nextInt(alphabet.length())));
+			}
+			String input = sb.toString();
+			int level = 1 + random.nextInt(5);
+			assertEquals(lineProcessor.replaceCharactersExhaustive(input, level), lineProcessor.replaceCharacters(input, level), input + " " + level);
+		}
+	}
+
 	private void checkReplaceCharacters(String input, String expected, LineProcessor lineProcessor) {
 		String actual = lineProcessor.replaceCharacters(input, 5);
 		assertEquals(expected, actual);
@@ -365,15 +475,53 @@ public class PreProcessTest {
 				+ "Alle mal zu mir\n", dict, silben, spellcheck, 9);
 	}
 
+	@Test public void testChunks() throws Exception {
+		Bag<String> dict = new HashBag<>(Arrays.asList("alle", "meine", "Entchen", "Schiff", "voraus", "zu", "mir", "mal"));
+		String input = "Al-le meine Ent-<en\n"
+				+ "Sehiss rvoauf\n"
+				+ "\n"
+				+ "Allemal zumir\n"
+				+ "\n"
+				+ "\n"
+				+ "meine Ent-\nchen\n";
+		String expected = "Alle meine Entchen\n"
+				+ "Schiff voraus\n"
+				+ "\n"
+				+ "Alle mal zu mir\n"
+				+ "\n"
+				+ "\n"
+				+ "meine Entchen\n";
+		// das Ergebnis ist unabhängig von der Größe der Arbeitspakete und der Anzahl Threads
+		for (String chunkSize : List.of("-chunk=1", "-chunk=4", "-chunk=10000")) {
+			for (String threads : List.of("1", "3")) {
+				PreProcess.Parameter params = PreProcess.Parameter.parse(new String[] { chunkSize, "-j", threads });
+				assertEquals(Integer.parseInt(threads), params.getThreads());
+				checkPreProcess(params, input, expected, dict, new HashBag<>(), new HashMap<>(), 7);
+			}
+		}
+	}
+
+	@Test public void testParseThreads() {
+		assertEquals(3, Parameter.parse(new String[] { "-j", "3" }).getThreads());
+		assertEquals(1, Parameter.parse(new String[] { "-j", "0" }).getThreads());
+		assertThrows(IllegalArgumentException.class, () -> Parameter.parse(new String[] { "-j" }));
+		assertThrows(IllegalArgumentException.class, () -> Parameter.parse(new String[] { "-j", "viele" }));
+	}
+
 	private void checkPreProcess(String line, String expected, Bag<String> dict, Bag<String> silben, Map<String, String> spellcheck, int expectedCount)
 			throws Exception {
-		PreProcess pp = new PreProcess(new PreProcess.Parameter());
+		checkPreProcess(new PreProcess.Parameter(), line, expected, dict, silben, spellcheck, expectedCount);
+	}
+
+	private void checkPreProcess(PreProcess.Parameter params, String line, String expected, Bag<String> dict, Bag<String> silben,
+			Map<String, String> spellcheck, int expectedCount) throws Exception {
+		PreProcess pp = new PreProcess(params);
 		try (
 				StringReader in = new StringReader(line);
 				StringWriter out = new StringWriter();
 				PrintWriter log = new PrintWriter(new ByteArrayOutputStream());
 				) {
-			int count = pp.preProcess(in, out, log, spellcheck, dict, silben);
+			int count = pp.preProcess(in, out, log, spellcheck, new DictionaryIndex(dict), silben);
 			String actual = out.toString();
 			Assert.assertLinesEqual(expected, actual);
 			assertEquals(expectedCount, count, "count");
@@ -6,7 +6,7 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringReader;
 import java.io.StringWriter;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.junit.jupiter.api.Test;
@@ -153,7 +153,7 @@ public class PrepareTextTest {
 		assertEquals(expected, actual);
 	}
 
-	private static final Map<String, String> REPLACEMENTS = new HashMap<>();
+	private static final Map<String, String> REPLACEMENTS = new LinkedHashMap<>();
 	static {
 		REPLACEMENTS.put("Bieter", "Meter");
 		REPLACEMENTS.put("Fahren", "Jahren");
@@ -0,0 +1,82 @@
+package org.github.cradloff.scanutils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class PunctuationNormalizerTest {
+	@Test public void normalize() {
+		checkNormalize("Wort", "Wort");
+		checkNormalize("--", "--");
+		checkNormalize("-=-", "-=-");
+		checkNormalize("a--b", "a—b");
+		checkNormalize("a-+—b", "a—b");
+		checkNormalize("<<Wort>>", "«Wort»");
+		checkNormalize("<<<", "«<");
+		checkNormalize("war's", "war’s");
+		checkNormalize("´‚·", "…");
+		checkNormalize("....", "…");
+		checkNormalize("..…..…", "……");
+		checkNormalize("a.-.b", "a…b");
+		checkNormalize(",.-.", ",…");
+		checkNormalize("a,.b", "a…b");
+	}
+
+	private void checkNormalize(String input, String expected) {
+		assertEquals(expected, TextUtils.satzzeichenErsetzen(input));
+		assertEquals(satzzeichenErsetzenRegex(input), TextUtils.satzzeichenErsetzen(input));
+	}
+
+	/** das Ergebnis entspricht der Kette von regulären Ausdrücken, unveränderte Zeichenketten werden selbst zurückgeliefert */
+	@Test public void compareWithRegex() {
+		String chars = "-—=+<>'´‚·.,…ab ";
+		Random random = new Random(42);
+		StringBuilder sb = new StringBuilder();
+		for (int n = 0; n < 500_000; n++) {
+			sb.setLength(0);
+			int length = random.nextInt(12);
+			for (int i = 0; i < length; i++) {
+				sb.append(chars.charAt(random.nextInt(chars.length())));
+			}
+			String input = sb.toString();
+			String expected = satzzeichenErsetzenRegex(input);
+			String actual = TextUtils.satzzeichenErsetzen(input);
+			assertEquals(expected, actual, input);
+			if (expected.equals(input)) {
+				assertSame(input, actual, input);
+			}
+		}
+	}
+
+	/** die ursprüngliche Implementierung mit regulären Ausdrücken */
+	private static String satzzeichenErsetzenRegex(String line) {
+		String result = line;
+		// mehrfache Gedankenstriche zusammenfassen (nicht bei ganzen Zeilen)
+		if (! result.matches("^[-=]*$")) {
+			result = result.replaceAll("[-—=+]{2,}", "—");
+		}
+
+		// << und >> in « und » umwandeln
+		result = result.replace("<<", "«");
+		result = result.replace(">>", "»");
+
+		// gerade Anführungszeichen durch typographische ersetzen
+		result = result.replace('\'', '’');
+		result = result.replace('´', ',');
+
+		// Apostroph unten durch Komma ersetzen
+		result = result.replace('‚', ',');
+
+		// mittleren Punkt durch normalen Punkt ersetzen
+		result = result.replace('·', '.');
+
+		// drei (oder mehr) Punkte durch … ersetzen
+		result = result.replaceAll("[.,]{3,}", "…");
+		result = result.replaceAll("\\.*[…]\\.*", "…");
+		result = result.replace(".-.", "…");
+		return result.replace(",.", "…");
+	}
+}
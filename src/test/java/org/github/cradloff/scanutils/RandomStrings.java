@@ -0,0 +1,16 @@
+package org.github.cradloff.scanutils;
+
+import java.util.Random;
+
+/** Zufällige Zeichenketten für die randomisierten Tests */
+public class RandomStrings {
+	/** Zeichenkette der angegebenen Länge aus Zeichen des Alphabets */
+	public static String randomString(Random random, String alphabet, int length) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+		}
+
+		return sb.toString();
+	}
+}
@@ -0,0 +1,119 @@
+package org.github.cradloff.scanutils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class ReplacementRulesTest {
+	@Test public void isLiteral() {
+		assertTrue(ReplacementRules.isLiteral("Bieter", "Meter"));
+		assertTrue(ReplacementRules.isLiteral("vor!", "dort"));
+		assertFalse(ReplacementRules.isLiteral("", "x"));
+		assertFalse(ReplacementRules.isLiteral("a.b", "x"));
+		assertFalse(ReplacementRules.isLiteral("\\bab", "x"));
+		assertFalse(ReplacementRules.isLiteral("ab", "$1"));
+		assertFalse(ReplacementRules.isLiteral("ab", "a\\b"));
+	}
+
+	@Test public void requiredLiteral() {
+		assertEquals("len", ReplacementRules.requiredLiteral("\\b([\\d]+)len\\b"));
+		assertEquals("Haus", ReplacementRules.requiredLiteral("^Haus$"));
+		assertEquals("Hau", ReplacementRules.requiredLiteral("Haus?"));
+		assertEquals("Haus", ReplacementRules.requiredLiteral("Haus+t"));
+		assertEquals("Ha", ReplacementRules.requiredLiteral("Ha[uo]s"));
+		assertEquals("Hau", ReplacementRules.requiredLiteral("Hau{1,2}s"));
+		assertEquals("Ha", ReplacementRules.requiredLiteral("Hau{0,2}s"));
+		assertEquals("a.b", ReplacementRules.requiredLiteral("a\\.b"));
+		assertEquals(" ist", ReplacementRules.requiredLiteral("(Das|Es) ist"));
+		assertEquals("\t", ReplacementRules.requiredLiteral("\\t"));
+		assertEquals("]x", ReplacementRules.requiredLiteral("[]a]]x"));
+		assertNull(ReplacementRules.requiredLiteral("Haus|Baum"));
+		assertNull(ReplacementRules.requiredLiteral("(?i)Haus"));
+		assertNull(ReplacementRules.requiredLiteral("\\u0041BC"));
+		assertNull(ReplacementRules.requiredLiteral("\\QHaus\\E"));
+		assertNull(ReplacementRules.requiredLiteral("[a-z]+"));
+	}
+
+	@Test public void apply() {
+		Map<String, String> replacements = new LinkedHashMap<>();
+		replacements.put("Bieter", "Meter");
+		replacements.put("Fahren", "Jahren");
+		replacements.put("vor!", "dort");
+		replacements.put("\\b([\\d]+)len\\b", "$1ten");
+		ReplacementRules rules = ReplacementRules.compile(replacements);
+		assertEquals(4, rules.size());
+		assertEquals("Nach dort in zehn Meter.", rules.apply("Nach vor! in zehn Bieter."));
+		assertEquals("Vor zwei Jahren", rules.apply("Vor zwei Fahren"));
+		assertEquals("Am 2ten, 3ten und 15ten", rules.apply("Am 2ten, 3len und 15len"));
+		assertEquals("unverändert", rules.apply("unverändert"));
+	}
+
+	/** die Regeln werden in der Reihenfolge der Map nacheinander angewendet */
+	@Test public void order() {
+		Map<String, String> replacements = new LinkedHashMap<>();
+		replacements.put("ab", "b");
+		replacements.put("bb", "c");
+		replacements.put("c+", "ab");
+		replacements.put("a(?=b)", "x");
+		assertEquals("xb", ReplacementRules.compile(replacements).apply("abb"));
+
+		replacements = new LinkedHashMap<>();
+		replacements.put("c", "d");
+		replacements.put("a", "c");
+		assertEquals("cd", ReplacementRules.compile(replacements).apply("ac"));
+	}
+
+	@Test public void invalidPattern() {
+		Map<String, String> replacements = new LinkedHashMap<>();
+		replacements.put("(ab", "x");
+		RuntimeException e = assertThrows(RuntimeException.class, () -> ReplacementRules.compile(replacements));
+		assertEquals("Error replacing pattern (ab with x", e.getMessage());
+	}
+
+	/** das Ergebnis entspricht der Anwendung von replaceAll für jede Regel */
+	@Test public void compareWithReplaceAll() {
+		Map<String, String> replacements = new LinkedHashMap<>();
+		replacements.put("ab", "ba");
+		replacements.put("aa", "c");
+		replacements.put("b.c", "d");
+		replacements.put("\\bcd", "a");
+		replacements.put("c+", "cb");
+		replacements.put("[ad]b?", "");
+		replacements.put("(a)(b)\\1", "$2$1");
+		replacements.put("^b", "ca");
+		replacements.put("d$", "bd");
+		replacements.put("x*", "");
+		replacements.put("ba", "ab");
+		replacements.put("(?:cb|bc)", "ad");
+		replacements.put("cba", "a b");
+		replacements.put("b{2,}", "d");
+		replacements.put("a d", "ab");
+		ReplacementRules rules = ReplacementRules.compile(replacements);
+
+		String chars = "abcd ";
+		Random random = new Random(42);
+		StringBuilder sb = new StringBuilder();
+		for (int n = 0; n < 100_000; n++) {
+			sb.setLength(0);
+			int length = random.nextInt(12);
+			for (int i = 0; i < length; i++) {
+				sb.append(chars.charAt(random.nextInt(chars.length())));
+			}
+			String input = sb.toString();
+			String expected = input;
+			for (Entry<String, String> entry : replacements.entrySet()) {
+				expected = expected.replaceAll(entry.getKey(), entry.getValue());
+			}
+			assertEquals(expected, rules.apply(input), input);
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package org.github.cradloff.scanutils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class SkeletonIndexTest {
+	@Test public void skeleton() {
+		assertEquals(SkeletonIndex.skeleton("Wasser"), SkeletonIndex.skeleton("Waffer"));
+		assertEquals(SkeletonIndex.skeleton("Wasser"), SkeletonIndex.skeleton("Waßer"));
+		assertEquals(SkeletonIndex.skeleton("gern"), SkeletonIndex.skeleton("gem"));
+		assertEquals(SkeletonIndex.skeleton("sein"), SkeletonIndex.skeleton("fein"));
+		assertEquals(SkeletonIndex.skeleton("Haus"), SkeletonIndex.skeleton("Hauf"));
+		assertEquals(SkeletonIndex.skeleton("Hölle"), SkeletonIndex.skeleton("Ho1le"));
+		assertNotEquals(SkeletonIndex.skeleton("Haus"), SkeletonIndex.skeleton("Maus"));
+		assertNotEquals(SkeletonIndex.skeleton("Wasser"), SkeletonIndex.skeleton("Wasse"));
+		// Zeichen ohne Klasse bleiben erhalten
+		assertEquals("xyz", SkeletonIndex.skeleton("xyz"));
+	}
+
+	@Test public void candidates() {
+		SkeletonIndex index = new SkeletonIndex(Arrays.asList("Wasser", "Waffel", "sein", "fein", "gern", "Haus"));
+		assertEquals(4, index.size());
+		assertEquals(List.of("Waffel", "Wasser"), candidates(index, "Waffer"));
+		assertEquals(List.of("fein", "sein"), candidates(index, "sein"));
+		assertEquals(List.of("gern"), candidates(index, "gem"));
+		assertEquals(List.of(), candidates(index, "Maus"));
+	}
+
+	private static List<String> candidates(SkeletonIndex index, String input) {
+		List<String> result = new ArrayList<>();
+		index.candidates(input, result);
+
+		return result;
+	}
+}
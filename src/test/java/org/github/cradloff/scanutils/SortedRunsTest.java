@@ -0,0 +1,88 @@
+package org.github.cradloff.scanutils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SortedRunsTest {
+	@TempDir File tempDir;
+	private File library;
+
+	@BeforeEach public void setUp() throws IOException {
+		library = new File(tempDir, "bibliothek");
+		String[] words = { "Haus", "haus", "Baum", "Äpfel", "apfel", "Wald", "und", "der", "Weg", "Straße" };
+		Random random = new Random(42);
+		for (int d = 0; d < 3; d++) {
+			File dir = new File(library, "buch" + d);
+			dir.mkdirs();
+			for (int f = 0; f < 10; f++) {
+				StringBuilder sb = new StringBuilder();
+				for (int i = 0; i < 200; i++) {
+					sb.append(words[random.nextInt(words.length)]).append(random.nextInt(50)).append(' ');
+					sb.append(words[random.nextInt(words.length)]).append(i % 7 == 0 ? ".\n" : " ");
+				}
+				Files.writeString(new File(dir, "kapitel" + f + ".md").toPath(), sb);
+			}
+		}
+	}
+
+	/** mit Zwischendateien entsteht dasselbe Wörterbuch wie im Speicher */
+	@Test public void spill() throws IOException {
+		File expected = new File(tempDir, "expected.dic");
+		int count = CreateDictionary.createDictionary(library, expected, 1, Long.MAX_VALUE);
+		assertEquals(Files.readAllLines(expected.toPath()).size(), count);
+
+		File actual = new File(tempDir, "actual.dic");
+		assertEquals(count, CreateDictionary.createDictionary(library, actual, 1, 1));
+		assertEquals(Files.readAllLines(expected.toPath()), Files.readAllLines(actual.toPath()));
+
+		// die Zwischendateien werden gelöscht
+		assertEquals(Arrays.asList("buch0", "buch1", "buch2"), Arrays.asList(library.list()).stream().sorted().toList());
+	}
+
+	@Test public void min() throws IOException {
+		File all = new File(tempDir, "all.dic");
+		CreateDictionary.createDictionary(library, all, 1, Long.MAX_VALUE);
+		List<String> expected = Files.readAllLines(all.toPath()).stream()
+				.filter(line -> Integer.parseInt(line.substring(line.indexOf('\t') + 1)) >= 5)
+				.toList();
+		assertTrue(expected.size() > 0);
+
+		File inMemory = new File(tempDir, "memory.dic");
+		assertEquals(expected.size(), CreateDictionary.createDictionary(library, inMemory, 5, Long.MAX_VALUE));
+		assertEquals(expected, Files.readAllLines(inMemory.toPath()));
+
+		File spilled = new File(tempDir, "spilled.dic");
+		assertEquals(expected.size(), CreateDictionary.createDictionary(library, spilled, 5, 1));
+		assertEquals(expected, Files.readAllLines(spilled.toPath()));
+	}
+
+	@Test public void merge() throws IOException {
+		try (SortedRuns runs = new SortedRuns(tempDir, 0)) {
+			WordCounter counter = new WordCounter();
+			counter.scan(ByteBuffer.wrap("Haus Baum haus".getBytes(StandardCharsets.UTF_8)));
+			runs.spillIfFull(counter);
+			assertEquals(0, counter.size());
+			counter.scan(ByteBuffer.wrap("Baum Wald".getBytes(StandardCharsets.UTF_8)));
+			runs.spill(counter);
+			runs.spill(counter);
+			assertEquals(2, runs.size());
+
+			File file = new File(tempDir, "german.dic");
+			assertEquals(4, runs.merge(file, 1));
+			assertEquals(Arrays.asList("Baum\t2", "haus\t1", "Haus\t1", "Wald\t1"), Files.readAllLines(file.toPath()));
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package org.github.cradloff.scanutils;
+
+import static org.github.cradloff.scanutils.RandomStrings.randomString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+public class SymSpellIndexTest {
+	@Test public void candidates() {
+		SymSpellIndex index = new SymSpellIndex(Arrays.asList("Haus", "Maus", "Hans", "Hausaufgabe", "Hausaufgaben", "aus", "Baum"));
+		assertEquals(List.of("Haus"), candidates(index, "Haus", 0));
+		assertEquals(List.of("Hans", "Haus"), candidates(index, "Hais", 1));
+		assertEquals(List.of("Hans", "Haus", "Maus", "aus"), candidates(index, "Haus", 1));
+		assertEquals(List.of("Hausaufgabe"), candidates(index, "Hausaufgahe", 1));
+		// Einfügungen und Löschungen am Anfang von langen Wörtern
+		assertEquals(List.of("Hausaufgabe", "Hausaufgaben"), candidates(index, "ausaufgabe", 2));
+		assertEquals(List.of("Hausaufgabe"), candidates(index, "XHausaufgabe", 1));
+		assertEquals(List.of(), candidates(index, "Hütte", 2));
+	}
+
+	/** Vergleich mit der Suche über alle Wörter */
+	@Test public void random() {
+		Random random = new Random(4711);
+		String alphabet = "abcdeäß";
+		List<String> dict = new ArrayList<>();
+		for (int i = 0; i < 2_000; i++) {
+			dict.add(randomString(random, alphabet, 1 + random.nextInt(12)));
+		}
+		SymSpellIndex index = new SymSpellIndex(new TreeSet<>(dict));
+
+		for (int i = 0; i < 2_000; i++) {
+			String word = dict.get(random.nextInt(dict.size()));
+			StringBuilder sb = new StringBuilder(word);
+			for (int j = random.nextInt(3); j > 0; j--) {
+				int pos = random.nextInt(sb.length() + 1);
+				char ch = alphabet.charAt(random.nextInt(alphabet.length()));
+				switch (random.nextInt(3)) {
+				case 0: sb.insert(pos, ch); break;
+				case 1: if (pos < sb.length()) sb.deleteCharAt(pos); break;
+				default: if (pos < sb.length()) sb.setCharAt(pos, ch); break;
+				}
+			}
+			String input = sb.toString();
+			int distance = random.nextInt(3);
+
+			TreeSet<String> expected = new TreeSet<>();
+			for (String candidate : dict) {
+				if (LevenshteinDistance.compare(input, candidate) <= distance) {
+					expected.add(candidate);
+				}
+			}
+			assertEquals(new ArrayList<>(expected), candidates(index, input, distance), input + "/" + distance);
+		}
+	}
+
+	private static List<String> candidates(SymSpellIndex index, String input, int distance) {
+		List<String> result = new ArrayList<>();
+		index.candidates(input, distance, result);
+
+		return result;
+	}
+}
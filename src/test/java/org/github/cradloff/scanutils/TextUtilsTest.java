@@ -204,12 +204,15 @@ public class TextUtilsTest {
 		assertTrue(TextUtils.startOfTag("</@"));
 		// Satzzeichen vor dem Kleinerzeichen werden ignoriert
 		assertTrue(TextUtils.startOfTag("?!</@"));
+		assertTrue(TextUtils.startOfTag("<.,"));
 
 		assertFalse(TextUtils.startOfTag(""));
 		assertFalse(TextUtils.startOfTag("<?!"));
 		assertFalse(TextUtils.startOfTag("<<"));
 		assertFalse(TextUtils.startOfTag("<<<"));
 		assertFalse(TextUtils.startOfTag("?!<<"));
+		assertFalse(TextUtils.startOfTag("a<b"));
+		assertFalse(TextUtils.startOfTag("<<."));
 	}
 
 	@Test public void endOfTag() {
@@ -220,12 +223,21 @@ public class TextUtilsTest {
 		// Satzzeichen nach dem Größerzeichen ignorieren
 		assertTrue(TextUtils.endOfTag(">?!"));
 		assertTrue(TextUtils.endOfTag(">..."));
+		assertTrue(TextUtils.endOfTag("';>a"));
 
 		assertFalse(TextUtils.endOfTag(""));
 		assertFalse(TextUtils.endOfTag("?!>"));
 		assertFalse(TextUtils.endOfTag(">>"));
 		assertFalse(TextUtils.endOfTag(">>>"));
 		assertFalse(TextUtils.endOfTag(">>?!"));
+		assertFalse(TextUtils.endOfTag("a>"));
+		assertFalse(TextUtils.endOfTag(">a\n"));
+	}
+
+	@Test public void consistsOf() {
+		assertTrue(TextUtils.consistsOf("", "tli"));
+		assertTrue(TextUtils.consistsOf("ttli", "tli"));
+		assertFalse(TextUtils.consistsOf("tlx", "tli"));
 	}
 
 	@Test public void toUpperCase() {
@@ -0,0 +1,42 @@
+package org.github.cradloff.scanutils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.github.cradloff.scanutils.TextUtils.State;
+import org.junit.jupiter.api.Test;
+
+public class TokenizerTest {
+	@Test public void tokenize() {
+		Tokenizer tokenizer = new Tokenizer();
+		tokenizer.tokenize("»Hallo Ae-ther!« <h2>dann&nbsp;");
+		assertEquals(List.of("»", "Hallo", " ", "Ae-ther", "!«", " ", "<", "h2", ">", "dann&nbsp", ";"), tokenizer.tokens());
+		assertEquals(11, tokenizer.size());
+		assertEquals(1, tokenizer.start(1));
+		assertEquals(6, tokenizer.end(1));
+		assertEquals(State.PUNCTUATION, tokenizer.state(0));
+		assertEquals(State.WORD, tokenizer.state(3));
+		assertEquals(State.WHITESPACE, tokenizer.state(5));
+		assertEquals(State.TAG, tokenizer.state(6));
+		assertEquals('A', tokenizer.firstChar(3));
+		assertTrue(tokenizer.startsWith(3, "Ae"));
+		assertFalse(tokenizer.startsWith(1, "Hallo!"));
+		assertTrue(tokenizer.endsWith(9, "&nbsp"));
+		assertFalse(tokenizer.endsWith(8, "&nbsp"));
+		assertEquals("dann", tokenizer.token(9, 0, 4));
+
+		// der Tokenizer kann wiederverwendet werden
+		tokenizer.tokenize("");
+		assertEquals(0, tokenizer.size());
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			sb.append("a ");
+		}
+		tokenizer.tokenize(sb);
+		assertEquals(200, tokenizer.size());
+		assertEquals(TextUtils.split(sb.toString()), tokenizer.tokens());
+	}
+}
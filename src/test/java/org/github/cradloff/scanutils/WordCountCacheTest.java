@@ -0,0 +1,87 @@
+package org.github.cradloff.scanutils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.collections4.Bag;
+import org.apache.commons.collections4.bag.HashBag;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class WordCountCacheTest {
+	@TempDir File tempDir;
+	private File cacheFile;
+	private Bag<String> german;
+
+	@BeforeEach public void setUp() throws IOException {
+		cacheFile = new File(tempDir, WordCountCache.FILENAME);
+		german = new HashBag<>(Arrays.asList("Haus", "Baum", "und", "Wald"));
+		File dir = new File(tempDir, "buch");
+		dir.mkdir();
+		Files.writeString(new File(dir, "a.md").toPath(), "Ein Haus und ein Baum und noch ein Haus.");
+		Files.writeString(new File(tempDir, "b.md").toPath(), "Der Baum steht im Wald.");
+	}
+
+	@Test public void updateStatistics() throws IOException {
+		Bag<String> expected = new HashBag<>();
+		expected.add("Haus", 2);
+		expected.add("Baum", 2);
+		expected.add("und", 2);
+		expected.add("Wald", 1);
+		assertEquals(expected, new HashBag<>(UpdateDictionary.updateStatistics(tempDir, german, null)));
+		assertEquals(expected, new HashBag<>(UpdateDictionary.updateStatistics(tempDir, german, cacheFile)));
+		assertTrue(cacheFile.exists());
+
+		// unveränderte Dateien werden aus dem Cache übernommen
+		List<String> lines = Files.readAllLines(cacheFile.toPath());
+		assertEquals(3, lines.size());
+		assertTrue(lines.get(1).startsWith("b.md\t"), lines.get(1));
+		assertTrue(lines.get(2).startsWith("buch/a.md\t"), lines.get(2));
+		lines.set(2, lines.get(2).replace("Haus\t2", "Haus\t5"));
+		Files.write(cacheFile.toPath(), lines);
+		Bag<String> result = UpdateDictionary.updateStatistics(tempDir, german, cacheFile);
+		assertEquals(5, result.getCount("Haus"));
+
+		// geänderte Dateien werden neu eingelesen, die anderen nicht
+		File b = new File(tempDir, "b.md");
+		Files.writeString(b.toPath(), "Der Wald, der Wald.");
+		result = UpdateDictionary.updateStatistics(tempDir, german, cacheFile);
+		assertEquals(5, result.getCount("Haus"));
+		assertEquals(1, result.getCount("Baum"));
+		assertEquals(2, result.getCount("Wald"));
+
+		// nur die Änderungszeit ist neu
+		b.setLastModified(b.lastModified() - 10_000);
+		result = UpdateDictionary.updateStatistics(tempDir, german, cacheFile);
+		assertEquals(5, result.getCount("Haus"));
+		assertTrue(Files.readAllLines(cacheFile.toPath()).get(1).startsWith("b.md\t" + b.length() + "\t" + b.lastModified() + "\t"));
+
+		// gelöschte Dateien entfallen
+		new File(tempDir, "buch/a.md").delete();
+		result = UpdateDictionary.updateStatistics(tempDir, german, cacheFile);
+		assertEquals(0, result.getCount("Haus"));
+		assertEquals(2, Files.readAllLines(cacheFile.toPath()).size());
+	}
+
+	/** ändert sich das Wörterbuch, werden die Einträge verworfen */
+	@Test public void fingerprint() throws IOException {
+		UpdateDictionary.updateStatistics(tempDir, german, cacheFile);
+		german.add("steht");
+		Bag<String> result = UpdateDictionary.updateStatistics(tempDir, german, cacheFile);
+		assertEquals(1, result.getCount("steht"));
+		assertEquals(2, result.getCount("Haus"));
+
+		// Wörter ohne Treffer entfallen, der Cache bleibt trotzdem gültig
+		german.add("Wiese");
+		result = UpdateDictionary.updateStatistics(tempDir, german, cacheFile);
+		assertEquals(0, result.getCount("Wiese"));
+		assertEquals(WordCountCache.fingerprint(result.uniqueSet()), Files.readAllLines(cacheFile.toPath()).get(0));
+	}
+}
@@ -0,0 +1,143 @@
+package org.github.cradloff.scanutils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.collections4.Bag;
+import org.apache.commons.collections4.bag.HashBag;
+import org.apache.commons.collections4.bag.TreeBag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class WordCounterTest {
+	@TempDir File tempDir;
+
+	@Test public void count() throws IOException {
+		File file = write("test.md", "Ein Wort, noch ein Wort.\r\nBinde-\nstrich und Groß-Schreibung dann&nbsp;...\n<h2>Über</h2> 3 Äpfel");
+		WordCounter counter = new WordCounter();
+		assertTrue(counter.count(file));
+		List<String> words = new ArrayList<>();
+		counter.addTo(words);
+		assertEquals(Arrays.asList("Ein", "Wort", "Wort", "noch", "ein", "Binde-", "strich", "und", "Groß", "Schreibung",
+				"dann", "h2", "h2", "Über", "Äpfel"), words);
+
+		Bag<String> bag = new TreeBag<>(new CaseInsensitiveComparator());
+		counter.addTo(bag);
+		assertEquals(2, bag.getCount("Wort"));
+		assertEquals(1, bag.getCount("ein"));
+		assertEquals(13, bag.uniqueSet().size());
+	}
+
+	/** ungültiges UTF-8 wird nicht gezählt, sondern zeilenweise eingelesen */
+	@Test public void invalidUtf8() throws IOException {
+		File file = new File(tempDir, "latin1.md");
+		Files.write(file.toPath(), "Straße und Wege".getBytes(StandardCharsets.ISO_8859_1));
+		assertFalse(new WordCounter().count(file));
+
+		Bag<String> words = new HashBag<>();
+		CreateDictionary.readWords(file, words);
+		assertEquals(new HashBag<>(Arrays.asList("Stra\uFFFDe", "und", "Wege")), words);
+
+		assertFalse(WordCounter.isValidUtf8(ByteBuffer.wrap(new byte[] { (byte) 0xc0, (byte) 0x80 })));
+		assertFalse(WordCounter.isValidUtf8(ByteBuffer.wrap(new byte[] { (byte) 0xed, (byte) 0xa0, (byte) 0x80 })));
+		assertFalse(WordCounter.isValidUtf8(ByteBuffer.wrap(new byte[] { (byte) 0xe2, (byte) 0x80 })));
+		assertTrue(WordCounter.isValidUtf8(ByteBuffer.wrap("a€😀".getBytes(StandardCharsets.UTF_8))));
+	}
+
+	/** das Ergebnis entspricht dem zeilenweisen Einlesen */
+	@Test public void compareWithLines() throws IOException {
+		String[] parts = { "Wort", "wort", "Über", "ß", "-", "—", "=", " ", "\n", "\r\n", "\r", ".", ",", "&nbsp", ";",
+				"<", "/", "@", "»", "😀", "1", "\t", "é" };
+		Random random = new Random(42);
+		for (int n = 0; n < 200; n++) {
+			StringBuilder sb = new StringBuilder();
+			int length = random.nextInt(200);
+			for (int i = 0; i < length; i++) {
+				sb.append(parts[random.nextInt(parts.length)]);
+			}
+			File file = write("random.md", sb.toString());
+
+			List<String> expected = new ArrayList<>();
+			CreateDictionary.readLines(file, expected);
+			Bag<String> expectedBag = new HashBag<>(expected);
+
+			WordCounter counter = new WordCounter();
+			assertTrue(counter.count(file));
+			Bag<String> actual = new HashBag<>();
+			counter.addTo(actual);
+			assertEquals(expectedBag, actual, sb.toString());
+		}
+	}
+
+	/** mehrere Dateien werden in einer Tabelle gezählt */
+	@Test public void addWords() throws IOException {
+		File dir = new File(tempDir, "buch");
+		dir.mkdir();
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 5_000; i++) {
+			sb.append("Wort").append((char) ('a' + i % 26)).append(i).append(" Wort\n");
+		}
+		Files.writeString(new File(dir, "a.md").toPath(), sb);
+		Files.writeString(new File(tempDir, "b.md").toPath(), "Wort und noch ein Wort");
+		Files.writeString(new File(tempDir, "c.txt").toPath(), "ignoriert");
+
+		Bag<String> dict = new TreeBag<>(new CaseInsensitiveComparator());
+		CreateDictionary.addWords(tempDir, dict);
+		assertEquals(5_002, dict.getCount("Wort"));
+		assertEquals(1, dict.getCount("Worta0"));
+		assertEquals(0, dict.getCount("ignoriert"));
+		assertEquals(5_000 + 4, dict.uniqueSet().size());
+	}
+
+	@Test public void mergeAndSort() throws IOException {
+		WordCounter counter1 = new WordCounter();
+		counter1.scan(ByteBuffer.wrap("Haus haus Baum".getBytes(StandardCharsets.UTF_8)));
+		WordCounter counter2 = new WordCounter();
+		counter2.scan(ByteBuffer.wrap("Baum Äpfel apfel".getBytes(StandardCharsets.UTF_8)));
+		counter2.add("Haus");
+		counter1.merge(counter2);
+		assertEquals(5, counter1.size());
+		assertEquals(2, counter1.getCount("Haus"));
+		assertEquals(2, counter1.getCount("Baum"));
+		assertEquals(0, counter1.getCount("Wald"));
+
+		List<String> sorted = new ArrayList<>();
+		for (int index : counter1.sorted(new CaseInsensitiveComparator())) {
+			sorted.add(counter1.word(index) + "=" + counter1.count(index));
+		}
+		assertEquals(Arrays.asList("apfel=1", "Baum=2", "haus=1", "Haus=2", "Äpfel=1"), sorted);
+	}
+
+	/** das Wörterbuch entspricht dem aus einem TreeBag */
+	@Test public void writeDictionary() throws IOException {
+		File dir = new File(tempDir, "buch");
+		dir.mkdir();
+		Files.writeString(new File(dir, "a.md").toPath(), "Ein Haus, ein Baum und noch ein haus.");
+		Files.writeString(new File(tempDir, "b.md").toPath(), "Der Baum steht vor dem Haus.");
+
+		Bag<String> dict = new TreeBag<>(new CaseInsensitiveComparator());
+		CreateDictionary.addWords(tempDir, dict);
+		File expected = new File(tempDir, "expected.dic");
+		FileAccess.writeDictionary(expected, dict);
+		File actual = new File(tempDir, "actual.dic");
+		FileAccess.writeDictionary(actual, CreateDictionary.countWords(tempDir), 1);
+		assertEquals(Files.readAllLines(expected.toPath()), Files.readAllLines(actual.toPath()));
+	}
+
+	private File write(String filename, String content) throws IOException {
+		File file = new File(tempDir, filename);
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+}